@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig;
+
+import com.github.steveash.typedconfig.resolver.ValueResolverFactory;
+import com.google.common.collect.ImmutableList;
+
+import java.lang.reflect.Method;
+
+/**
+ * The precomputed bindings for every method of a proxy interface.  Everything in here is independent of the
+ * particular configuration instance, so the plan is built once per interface (and expression engine) by the
+ * {@link ConfigFactoryContext} and then each proxy only has to bind it to its configuration
+ *
+ * @author Steve Ash
+ */
+public class BindingPlan {
+
+    private final Class<?> interfaze;
+    private final ImmutableList<MethodPlan> methodPlans;
+
+    BindingPlan(Class<?> interfaze, ImmutableList<MethodPlan> methodPlans) {
+        this.interfaze = interfaze;
+        this.methodPlans = methodPlans;
+    }
+
+    public Class<?> getInterfaceClass() {
+        return interfaze;
+    }
+
+    public ImmutableList<MethodPlan> getMethodPlans() {
+        return methodPlans;
+    }
+
+    /**
+     * The binding of a single proxy method along with the factory that the registry picked for it
+     */
+    public static class MethodPlan {
+        private final Method method;
+        private final ConfigBinding binding;
+        private final ValueResolverFactory factory;
+
+        MethodPlan(Method method, ConfigBinding binding, ValueResolverFactory factory) {
+            this.method = method;
+            this.binding = binding;
+            this.factory = factory;
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public ConfigBinding getBinding() {
+            return binding;
+        }
+
+        /**
+         * @return the factory for the binding; null for lookup bindings as the factory depends on the key that is
+         * looked up at resolve time
+         */
+        public ValueResolverFactory getFactory() {
+            return factory;
+        }
+
+        public boolean isLookup() {
+            return binding.containsOption(Option.LOOKUP_RESULT);
+        }
+    }
+}
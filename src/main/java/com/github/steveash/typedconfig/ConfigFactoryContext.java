@@ -16,21 +16,34 @@
 
 package com.github.steveash.typedconfig;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.common.eventbus.EventBus;
 import com.google.common.reflect.TypeToken;
 import org.apache.commons.configuration.HierarchicalConfiguration;
 import org.apache.commons.configuration.SubnodeConfiguration;
 import org.apache.commons.configuration.event.ConfigurationEvent;
 import org.apache.commons.configuration.event.ConfigurationListener;
+import org.apache.commons.configuration.tree.DefaultExpressionEngine;
+import org.apache.commons.configuration.tree.ExpressionEngine;
+import org.apache.commons.configuration.tree.xpath.XPathExpressionEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.github.steveash.typedconfig.BindingPlan.MethodPlan;
 import com.github.steveash.typedconfig.annotation.Config;
 import com.github.steveash.typedconfig.annotation.ConfigProxy;
 import com.github.steveash.typedconfig.caching.CacheStrategy;
+import com.github.steveash.typedconfig.caching.ConfigVersions;
+import com.github.steveash.typedconfig.caching.InvalidationIndex;
 import com.github.steveash.typedconfig.defaultvalue.DefaultValueStrategy;
 import com.github.steveash.typedconfig.keycombine.KeyCombinationStrategy;
+import com.github.steveash.typedconfig.proxy.JdkProxyStrategy;
+import com.github.steveash.typedconfig.proxy.ProxyStrategy;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 import com.github.steveash.typedconfig.resolver.ValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.ValueResolverRegistry;
@@ -41,6 +54,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This is the internal SPI that value resolvers et al use to resolve their configuration values
@@ -56,17 +70,36 @@ public class ConfigFactoryContext implements ConfigurationListener {
     private final DefaultValueStrategy defaultStrategy;
     private final KeyCombinationStrategy keyStrategy;
     private final CacheStrategy cacheStrategy;
+    private final ProxyStrategy proxyStrategy;
     private final ConfigAnnotationResolver annotationResolver;
     private final EventBus eventBus = new EventBus("config-proxy");
+    private final InvalidationIndex invalidationIndex = new InvalidationIndex();
+    private final ConfigVersions configVersions = new ConfigVersions();
+    // plans live in a ClassValue on their interface so that the context doesn't pin the interface's class loader
+    private final ClassValue<ConcurrentMap<PlanKey, BindingPlan>> bindingPlans =
+            new ClassValue<ConcurrentMap<PlanKey, BindingPlan>>() {
+                @Override
+                protected ConcurrentMap<PlanKey, BindingPlan> computeValue(Class<?> interfaze) {
+                    return new MapMaker().makeMap();
+                }
+            };
+    private final AbstractCache.SimpleStatsCounter bindingPlanStats = new AbstractCache.SimpleStatsCounter();
 
     public ConfigFactoryContext(ValueResolverRegistry registry, ValidationStrategy validationStrategy,
                                 DefaultValueStrategy defaultStrategy, KeyCombinationStrategy keyStrategy,
                                 CacheStrategy cacheStrategy) {
+        this(registry, validationStrategy, defaultStrategy, keyStrategy, cacheStrategy, new JdkProxyStrategy());
+    }
+
+    public ConfigFactoryContext(ValueResolverRegistry registry, ValidationStrategy validationStrategy,
+                                DefaultValueStrategy defaultStrategy, KeyCombinationStrategy keyStrategy,
+                                CacheStrategy cacheStrategy, ProxyStrategy proxyStrategy) {
         this.registry = registry;
         this.keyStrategy = keyStrategy;
         this.validationStrategy = validationStrategy;
         this.defaultStrategy = defaultStrategy;
         this.cacheStrategy = cacheStrategy;
+        this.proxyStrategy = proxyStrategy;
         this.annotationResolver = new ConfigAnnotationResolver();
 
         eventBus.register(this);
@@ -84,8 +117,14 @@ public class ConfigFactoryContext implements ConfigurationListener {
      */
     public ValueResolver makeResolverForBinding(HierarchicalConfiguration config, ConfigBinding newMethodBinding,
                                                 ConfigBinding parentBinding) {
-        ValueResolverFactory factory = getRegistry().lookup(newMethodBinding);
+        return makeResolverForBinding(config, newMethodBinding, parentBinding, getRegistry().lookup(newMethodBinding));
+    }
 
+    /**
+     * Same as #makeResolverForBinding but with the factory already looked up (i.e. from a {@link BindingPlan})
+     */
+    public ValueResolver makeResolverForBinding(HierarchicalConfiguration config, ConfigBinding newMethodBinding,
+                                                ConfigBinding parentBinding, ValueResolverFactory factory) {
         switch (factory.getValueType()) {
             case Container:
             case Simple:
@@ -123,10 +162,33 @@ public class ConfigFactoryContext implements ConfigurationListener {
         return cacheStrategy;
     }
 
+    public ProxyStrategy getProxyStrategy() {
+        return proxyStrategy;
+    }
+
+    /**
+     * @return the bus that every configuration change event is posted to; caches that were decorated without
+     * knowing their configuration (see {@link CacheStrategy}) subscribe to it to be invalidated by any change
+     */
     public EventBus getEventBus() {
         return eventBus;
     }
 
+    /**
+     * @return the index that caching resolvers register with to be invalidated when their part of the
+     * configuration changes
+     */
+    public InvalidationIndex getInvalidationIndex() {
+        return invalidationIndex;
+    }
+
+    /**
+     * @return the version counters of the root configurations, bumped on every change
+     */
+    public ConfigVersions getConfigVersions() {
+        return configVersions;
+    }
+
     public ConfigAnnotationResolver getAnnotationResolver() {
         return annotationResolver;
     }
@@ -159,6 +221,55 @@ public class ConfigFactoryContext implements ConfigurationListener {
         return new ConfigBinding(combinedLocalKey, TypeToken.of(method.getGenericReturnType()), options, anns);
     }
 
+    /**
+     * Returns the plan of bindings for every method on the given proxy interface.  Plans are built once and shared
+     * by every proxy of the interface whose configuration's expression engine has the same type and delimiters (see
+     * {@link KeyCombinationStrategy} for why that is enough); changing the delimiters of an engine gets a new plan
+     * @param interfaze
+     * @param config
+     * @return
+     */
+    public BindingPlan getBindingPlanFor(Class<?> interfaze, HierarchicalConfiguration config) {
+        ConcurrentMap<PlanKey, BindingPlan> plans = bindingPlans.get(interfaze);
+        PlanKey key = PlanKey.of(config.getExpressionEngine());
+        BindingPlan plan = plans.get(key);
+        if (plan != null) {
+            bindingPlanStats.recordHits(1);
+            return plan;
+        }
+
+        bindingPlanStats.recordMisses(1);
+        long start = System.nanoTime();
+        try {
+            plan = makeBindingPlan(interfaze, config);
+        } catch (RuntimeException e) {
+            bindingPlanStats.recordLoadException(System.nanoTime() - start);
+            throw e;
+        }
+        bindingPlanStats.recordLoadSuccess(System.nanoTime() - start);
+        BindingPlan raced = plans.putIfAbsent(key, plan);
+        return (raced != null ? raced : plan);
+    }
+
+    /**
+     * @return the hit/miss statistics of the binding plan cache
+     */
+    public CacheStats getBindingPlanStats() {
+        return bindingPlanStats.snapshot();
+    }
+
+    private BindingPlan makeBindingPlan(Class<?> interfaze, HierarchicalConfiguration config) {
+        ImmutableList.Builder<MethodPlan> methodPlans = ImmutableList.builder();
+        for (Method method : interfaze.getDeclaredMethods()) {
+            ConfigBinding binding = getBindingFor(interfaze, method, config);
+            ValueResolverFactory factory = null;
+            if (!binding.containsOption(Option.LOOKUP_RESULT))
+                factory = getRegistry().lookup(binding);
+            methodPlans.add(new MethodPlan(method, binding, factory));
+        }
+        return new BindingPlan(interfaze, methodPlans.build());
+    }
+
     private String getCombinedKey(String baseKey, String localKey, HierarchicalConfiguration config) {
         return keyStrategy.combineKey(baseKey, localKey, config);
     }
@@ -185,7 +296,51 @@ public class ConfigFactoryContext implements ConfigurationListener {
 
 //        System.out.println("Received event: " + event.getType() + " for property name: " + event.getPropertyName() +
 //                        " -> " + event.getPropertyValue() + ", is before? " + event.isBeforeUpdate());
+        configVersions.bump(event.getSource());
+        invalidationIndex.invalidate(event);
         eventBus.post(event);
     }
 
+    // the engines we know are compared by their type and current delimiters (they are mutable and don't define
+    // equals); engines we don't know anything about are compared by identity
+    private static final class PlanKey {
+        private final Class<?> engineType;
+        private final List<String> delimiters;
+        private final ExpressionEngine unknownEngine;
+
+        private PlanKey(Class<?> engineType, List<String> delimiters, ExpressionEngine unknownEngine) {
+            this.engineType = engineType;
+            this.delimiters = delimiters;
+            this.unknownEngine = unknownEngine;
+        }
+
+        static PlanKey of(ExpressionEngine engine) {
+            if (engine instanceof DefaultExpressionEngine) {
+                DefaultExpressionEngine defaultEngine = (DefaultExpressionEngine) engine;
+                List<String> delimiters = Arrays.asList(defaultEngine.getPropertyDelimiter(),
+                        defaultEngine.getEscapedDelimiter(), defaultEngine.getIndexStart(),
+                        defaultEngine.getIndexEnd(), defaultEngine.getAttributeStart(), defaultEngine.getAttributeEnd());
+                return new PlanKey(engine.getClass(), delimiters, null);
+            }
+            if (engine instanceof XPathExpressionEngine)
+                return new PlanKey(engine.getClass(), null, null);
+
+            return new PlanKey(null, null, engine);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PlanKey)) return false;
+            PlanKey that = (PlanKey) o;
+            return Objects.equal(engineType, that.engineType) &&
+                    Objects.equal(delimiters, that.delimiters) && unknownEngine == that.unknownEngine;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(engineType, delimiters, System.identityHashCode(unknownEngine));
+        }
+    }
+
 }
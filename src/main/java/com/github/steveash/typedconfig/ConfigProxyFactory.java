@@ -16,17 +16,28 @@
 package com.github.steveash.typedconfig;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Lists;
 import com.google.common.reflect.TypeToken;
 import org.apache.commons.configuration.HierarchicalConfiguration;
 import com.github.steveash.typedconfig.caching.CacheEverythingForeverStategy;
+import com.github.steveash.typedconfig.caching.CacheEverythingUntilChangedStrategy;
 import com.github.steveash.typedconfig.caching.CacheNestedProxyStrategy;
 import com.github.steveash.typedconfig.caching.CacheNothingStrategy;
+import com.github.steveash.typedconfig.caching.CacheProxiesAndContainersStrategy;
 import com.github.steveash.typedconfig.caching.CacheStrategy;
+import com.github.steveash.typedconfig.caching.ExpireAfterWriteCacheStrategy;
+import com.github.steveash.typedconfig.caching.RecomputeMode;
+import com.github.steveash.typedconfig.caching.RefreshAfterWriteCacheStrategy;
 import com.github.steveash.typedconfig.defaultvalue.ConfigValueDefaultValueStrategy;
 import com.github.steveash.typedconfig.defaultvalue.DefaultValueStrategy;
 import com.github.steveash.typedconfig.keycombine.KeyCombinationStrategy;
 import com.github.steveash.typedconfig.keycombine.SmartDelimitedKeyCombinationStrategy;
+import com.github.steveash.typedconfig.proxy.GeneratedClassProxyStrategy;
+import com.github.steveash.typedconfig.proxy.JdkProxyStrategy;
+import com.github.steveash.typedconfig.proxy.PrecompiledProxyStrategy;
+import com.github.steveash.typedconfig.proxy.ProxyStrategy;
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
 import com.github.steveash.typedconfig.resolver.ValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.ValueResolverRegistry;
 import com.github.steveash.typedconfig.validation.BeanValidatorValidationStrategy;
@@ -34,6 +45,8 @@ import com.github.steveash.typedconfig.validation.NoValidationStrategy;
 import com.github.steveash.typedconfig.validation.ValidationStrategy;
 
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class ConfigProxyFactory {
 
@@ -62,6 +75,7 @@ public class ConfigProxyFactory {
         private DefaultValueStrategy defaultStrategy = new ConfigValueDefaultValueStrategy();
         private KeyCombinationStrategy keyStrategy = new SmartDelimitedKeyCombinationStrategy();
         private CacheStrategy cacheStrategy = new CacheNestedProxyStrategy();
+        private ProxyStrategy proxyStrategy = new JdkProxyStrategy();
 
         private Builder() { }
 
@@ -75,7 +89,9 @@ public class ConfigProxyFactory {
                     validationStrategy,
                     defaultStrategy,
                     keyStrategy,
-                    cacheStrategy
+                    cacheStrategy,
+                    // proxy classes generated at compile time are used whatever the proxy strategy
+                    new PrecompiledProxyStrategy(proxyStrategy)
             );
         }
 
@@ -101,6 +117,32 @@ public class ConfigProxyFactory {
             return this;
         }
 
+        /**
+         * Same as #cacheOnlyProxies but with control over what happens when many threads need a nested proxy
+         * that was just invalidated; the default is to let one thread rebuild it while the others wait
+         * @param recomputeMode
+         * @return
+         */
+        public Builder cacheOnlyProxies(RecomputeMode recomputeMode) {
+            this.cacheStrategy = new CacheNestedProxyStrategy(Preconditions.checkNotNull(recomputeMode));
+            return this;
+        }
+
+        /**
+         * Same as #cacheOnlyProxies but the lists, sets, and maps returned from container methods are cached too,
+         * so the collection and its element proxies are only rebuilt after a change under the container's key
+         * @return
+         */
+        public Builder cacheProxiesAndContainers() {
+            this.cacheStrategy = new CacheProxiesAndContainersStrategy();
+            return this;
+        }
+
+        public Builder cacheProxiesAndContainers(RecomputeMode recomputeMode) {
+            this.cacheStrategy = new CacheProxiesAndContainersStrategy(Preconditions.checkNotNull(recomputeMode));
+            return this;
+        }
+
         /**
          * If you are only loading the configuration once and it is immutable at runtime, then prefer the
          * cacheEverythingForever approach.  The underlying configuration will be accessed only the first time
@@ -112,11 +154,79 @@ public class ConfigProxyFactory {
             return this;
         }
 
+        public Builder cacheEverythingForever(RecomputeMode recomputeMode) {
+            this.cacheStrategy = new CacheEverythingForeverStategy(Preconditions.checkNotNull(recomputeMode));
+            return this;
+        }
+
+        /**
+         * This caches every value until the configuration that it came from changes and then lazily recomputes
+         * them.  Invalidation is just bumping a version per root configuration, so this is a good choice for large
+         * configurations that change occasionally at runtime
+         * @return
+         */
+        public Builder cacheEverythingUntilChanged() {
+            this.cacheStrategy = new CacheEverythingUntilChangedStrategy();
+            return this;
+        }
+
+        /**
+         * Caches every value for the given time after it is read, regardless of configuration events.  Use this
+         * when values can change without the configuration telling us (interpolation, system properties) and some
+         * staleness is ok.  Methods can override the time with @CacheTtl
+         * @param duration
+         * @param unit
+         * @return
+         */
+        public Builder cacheExpiringAfterWrite(long duration, TimeUnit unit) {
+            this.cacheStrategy = new ExpireAfterWriteCacheStrategy(duration, unit);
+            return this;
+        }
+
+        /**
+         * Like #cacheExpiringAfterWrite but expired values are refreshed on the given executor while callers keep
+         * getting the previous value
+         * @param duration
+         * @param unit
+         * @param refreshExecutor
+         * @return
+         */
+        public Builder cacheRefreshingAfterWrite(long duration, TimeUnit unit, Executor refreshExecutor) {
+            this.cacheStrategy = new RefreshAfterWriteCacheStrategy(duration, unit, refreshExecutor);
+            return this;
+        }
+
         public Builder withCustomCacheStrategy(CacheStrategy cacheStrategy) {
             this.cacheStrategy = Preconditions.checkNotNull(cacheStrategy);
             return this;
         }
 
+        /**
+         * This is the default proxy mode which uses java.lang.reflect.Proxy to implement the proxy interfaces.  It
+         * works for every interface but every method call goes through a reflective invocation handler
+         * @return
+         */
+        public Builder jdkProxies() {
+            this.proxyStrategy = new JdkProxyStrategy();
+            return this;
+        }
+
+        /**
+         * This generates a real class for each proxy interface at runtime which calls the value resolvers directly
+         * and avoids the reflective dispatch of the jdk proxies.  Prefer this if you read configuration values in
+         * hot loops.  Interfaces that can't have a class generated for them silently fall back to jdk proxies
+         * @return
+         */
+        public Builder generatedProxies() {
+            this.proxyStrategy = new GeneratedClassProxyStrategy();
+            return this;
+        }
+
+        public Builder withCustomProxyStrategy(ProxyStrategy proxyStrategy) {
+            this.proxyStrategy = Preconditions.checkNotNull(proxyStrategy);
+            return this;
+        }
+
         public Builder withCustomKeyCombinationStrategy(KeyCombinationStrategy keyStrategy) {
             this.keyStrategy = Preconditions.checkNotNull(keyStrategy);
             return this;
@@ -196,4 +306,30 @@ public class ConfigProxyFactory {
 
         return (T) factory.makeForThis(binding, configuration, context).resolve();
     }
+
+    /**
+     * Resolves every value in the graph of the given proxy once and returns an equivalent graph of proxies that
+     * just return those values.  Nested proxies are frozen too and containers are copied into immutable ones.  The
+     * frozen graph has no references back to the configuration or this factory (so they can be collected) and
+     * never sees later changes to the configuration; use this for configuration that is only loaded at startup
+     * <p/>
+     * Validation and required checks run while freezing, so an invalid configuration fails here
+     *
+     * @param proxy a proxy made by a ConfigProxyFactory
+     * @return the frozen copy which implements the same interface
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T freeze(T proxy) {
+        Preconditions.checkArgument(proxy instanceof ProxiedConfiguration, "You can only freeze configuration proxies");
+        return (T) new ProxyFreezer(context.getProxyStrategy()).freezeProxy((ProxiedConfiguration) proxy);
+    }
+
+    /**
+     * The binding plan for each proxy interface is computed once and reused for every proxy made for that
+     * interface (including rebuilt nested proxies)
+     * @return the hit/miss statistics of the cache of binding plans
+     */
+    public CacheStats getBindingPlanStats() {
+        return context.getBindingPlanStats();
+    }
 }
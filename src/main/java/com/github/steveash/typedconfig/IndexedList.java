@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import java.util.List;
+
+/**
+ * An immutable list of nested proxies with hash indexes over the properties named by
+ * {@link com.github.steveash.typedconfig.annotation.Index} on the proxy method.  Asking for a property that isn't
+ * indexed throws an IllegalArgumentException
+ *
+ * @author Steve Ash
+ */
+public interface IndexedList<T> extends List<T> {
+
+    /**
+     * @param property an indexed property of the child type
+     * @param value
+     * @return the first child (in list order) whose property equals the value or null if there isn't one
+     */
+    T findBy(String property, Object value);
+
+    /**
+     * @param property an indexed property of the child type
+     * @param value
+     * @return all of the children (in list order) whose property equals the value
+     */
+    ImmutableList<T> findAllBy(String property, Object value);
+
+    /**
+     * @param property an indexed property of the child type
+     * @return the whole index for the property; children with a null value for the property aren't in it
+     */
+    ImmutableListMultimap<Object, T> indexOn(String property);
+}
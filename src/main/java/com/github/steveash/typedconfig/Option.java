@@ -37,7 +37,14 @@ public enum Option {
      * that this result is passed to the expression engine instead of the ConfigInterpolator.  This means that
      * any valid expressionEngine expression is good to use.
      */
-    LOOKUP_RESULT
+    LOOKUP_RESULT,
+
+    /**
+     * For primitive array return types (int[], long[], double[], byte[]) returns the array that the cache strategy
+     * kept to every caller instead of a copy of it, so reads don't allocate.  Callers must never write to the array.
+     * Has no effect on other return types
+     */
+    SHARE_ARRAY
 
 	;
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig;
+
+import com.github.steveash.typedconfig.proxy.ProxyStrategy;
+import com.github.steveash.typedconfig.resolver.HashCodeResolver;
+import com.github.steveash.typedconfig.resolver.InstanceValueResolver;
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
+import com.github.steveash.typedconfig.resolver.ToStringResolver;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.github.steveash.typedconfig.resolver.type.container.CopyableContainer;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Resolves every value of a proxy graph once and builds an equivalent graph of proxies whose resolvers just return
+ * those values.  Nested proxies are frozen too and containers are copied into immutable containers of the frozen
+ * elements; large containers are frozen in parallel.  Nothing in the frozen graph refers back to the configuration
+ * or the factory context.  Not reusable: use one instance per freeze
+ *
+ * @author Steve Ash
+ */
+final class ProxyFreezer {
+
+    // containers with more elements than this have their elements frozen in parallel
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final ProxyStrategy proxyStrategy;
+    // keyed by identity (weak keys) so that proxies shared in the graph stay shared and proxy.equals isn't called
+    private final ConcurrentMap<Object, Object> frozenProxies = new MapMaker().weakKeys().makeMap();
+    private final Function<Object, Object> freezeElement = new Function<Object, Object>() {
+        @Override
+        public Object apply(Object input) {
+            return freezeValue(input);
+        }
+    };
+
+    ProxyFreezer(ProxyStrategy proxyStrategy) {
+        this.proxyStrategy = proxyStrategy;
+    }
+
+    Object freezeProxy(ProxiedConfiguration proxy) {
+        Object frozen = frozenProxies.get(proxy);
+        if (frozen != null)
+            return frozen;
+
+        Class<?> interfaze = proxy.getInterfaceClass();
+        ImmutableMap.Builder<Method, ValueResolver> builder = ImmutableMap.builder();
+        for (Map.Entry<Method, ValueResolver> entry : proxy.getResolvers().entrySet()) {
+            builder.put(entry.getKey(), freezeResolver(entry.getKey(), entry.getValue().resolve()));
+        }
+        ImmutableMap<Method, ValueResolver> resolvers = builder.build();
+        ValueResolver hashResolver = new InstanceValueResolver(new HashCodeResolver(interfaze, resolvers).resolve());
+        ValueResolver toStringResolver = new InstanceValueResolver(
+                new ToStringResolver(interfaze, resolvers).resolve());
+        frozen = proxyStrategy.makeProxy(interfaze, resolvers, hashResolver, toStringResolver);
+
+        Object existing = frozenProxies.putIfAbsent(proxy, frozen);
+        return (existing != null ? existing : frozen);
+    }
+
+    private ValueResolver freezeResolver(Method method, Object value) {
+        if (value instanceof Stream) {
+            // streams can only be consumed once so keep the elements and hand out a new stream each time
+            final ImmutableList<?> elements = freezeElements(((Stream<?>) value).collect(Collectors.toList()));
+            return new InstanceValueResolver(elements) {
+                @Override
+                public Object resolve() {
+                    return elements.stream();
+                }
+            };
+        }
+        if (value != null && value.getClass().isArray()) {
+            // arrays are mutable so each caller gets its own copy like they do from the live proxy
+            final Object array = value;
+            return new InstanceValueResolver(array) {
+                @Override
+                public Object resolve() {
+                    return copyOfArray(array);
+                }
+            };
+        }
+        return new InstanceValueResolver(freezeValue(value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object freezeValue(Object value) {
+        if (value instanceof ProxiedConfiguration)
+            return freezeProxy((ProxiedConfiguration) value);
+
+        if (value instanceof HierarchicalConfiguration)
+            throw new IllegalArgumentException("Cannot freeze a proxy that returns the configuration itself");
+
+        if (value instanceof CopyableContainer)
+            return ((CopyableContainer) value).copyTransformingElements(freezeElement);
+
+        if (value instanceof SortedMap)
+            return ImmutableSortedMap.copyOfSorted(Maps.transformValues((SortedMap<Object, Object>) value,
+                    freezeElement));
+
+        if (value instanceof Map)
+            return ImmutableMap.copyOf(Maps.transformValues((Map<Object, Object>) value, freezeElement));
+
+        if (value instanceof SortedSet) // sorted elements are simple values which don't need freezing
+            return ImmutableSortedSet.copyOfSorted((SortedSet<Object>) value);
+
+        if (value instanceof Set)
+            return ImmutableSet.copyOf(freezeElements((Set<Object>) value));
+
+        if (value instanceof Iterable)
+            return freezeElements((Iterable<Object>) value);
+
+        return value;
+    }
+
+    private ImmutableList<Object> freezeElements(Iterable<?> elements) {
+        if (elements instanceof Collection && ((Collection<?>) elements).size() > PARALLEL_THRESHOLD) {
+            List<Object> frozen = ((Collection<?>) elements).parallelStream()
+                    .map(new java.util.function.Function<Object, Object>() {
+                        @Override
+                        public Object apply(Object input) {
+                            return freezeValue(input);
+                        }
+                    })
+                    .collect(Collectors.toList());
+            return ImmutableList.copyOf(frozen);
+        }
+        return ImmutableList.copyOf(Iterables.transform(elements, freezeElement));
+    }
+
+    private static Object copyOfArray(Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overrides how long the value of this method may be cached by the time based cache strategies
+ * ({@link com.github.steveash.typedconfig.caching.ExpireAfterWriteCacheStrategy} and
+ * {@link com.github.steveash.typedconfig.caching.RefreshAfterWriteCacheStrategy}).  Other strategies ignore it
+ * @author Steve Ash
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheTtl {
+
+    /**
+     * @return how long the value is good for after it is read from the configuration
+     */
+    long value();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Put on an enum constant to give it other labels that the configuration can use for it, and/or to match its name
+ * and labels ignoring case.  Constants without it must be given by their exact name
+ * @author Steve Ash
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EnumAlias {
+
+    /**
+     * @return other labels for this constant
+     */
+    String[] value() default {};
+
+    /**
+     * @return true if the name and labels of this constant should match regardless of case
+     */
+    boolean ignoreCase() default false;
+}
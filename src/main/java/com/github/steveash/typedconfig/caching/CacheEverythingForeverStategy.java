@@ -28,10 +28,23 @@ import com.github.steveash.typedconfig.resolver.ValueResolver;
  */
 public class CacheEverythingForeverStategy implements CacheStrategy {
 
+    private final RecomputeMode recomputeMode;
+
+    public CacheEverythingForeverStategy() {
+        this(RecomputeMode.UNSYNCHRONIZED);
+    }
+
+    /**
+     * @param recomputeMode what to do when threads race to compute the value the first time
+     */
+    public CacheEverythingForeverStategy(RecomputeMode recomputeMode) {
+        this.recomputeMode = recomputeMode;
+    }
+
     @Override
     public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
                                             ConfigFactoryContext context) {
-        return new CachingValueResolver(resolver);
+        return new CachingValueResolver(resolver, recomputeMode);
         // don't even bother listening to events because we're caching everything forever
     }
 }
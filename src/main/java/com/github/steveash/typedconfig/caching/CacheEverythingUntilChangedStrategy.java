@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.ConfigFactoryContext;
+import com.github.steveash.typedconfig.resolver.CachingValueResolver;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.github.steveash.typedconfig.resolver.VersionedCachingValueResolver;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+
+/**
+ * This strategy caches everything until the root configuration changes.  Instead of subscribing every cache to
+ * change events, each cache checks the version of its root configuration on access; a change to the configuration
+ * is just an increment of that version
+ *
+ * @author Steve Ash
+ */
+public class CacheEverythingUntilChangedStrategy implements CacheStrategy {
+
+    // without the configuration there's no version to check, so any change event invalidates the cache
+    @Override
+    public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
+                                            ConfigFactoryContext context) {
+        CachingValueResolver cachingResolver = new CachingValueResolver(resolver);
+        context.getEventBus().register(cachingResolver);
+        return cachingResolver;
+    }
+
+    @Override
+    public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
+                                            HierarchicalConfiguration config, ConfigFactoryContext context) {
+        return new VersionedCachingValueResolver(resolver, context.getConfigVersions().versionFor(config));
+    }
+}
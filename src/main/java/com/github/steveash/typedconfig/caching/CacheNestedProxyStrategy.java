@@ -21,22 +21,53 @@ import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.resolver.CachingValueResolver;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 import com.github.steveash.typedconfig.resolver.ValueType;
+import org.apache.commons.configuration.HierarchicalConfiguration;
 
 /**
  * Strategy that caches the nested types only and listens to invalidation requests from the configuration to invalidate
- * their caches.  This is a reasonable default strategy
+ * their caches.  Only the caches at, above, or below the key that changed are invalidated.  This is a reasonable
+ * default strategy.  By default only one thread rebuilds a nested proxy after it is invalidated and the others
+ * wait for it
  *
  * @author Steve Ash
  */
 public class CacheNestedProxyStrategy implements CacheStrategy {
+
+    private final RecomputeMode recomputeMode;
+
+    public CacheNestedProxyStrategy() {
+        this(RecomputeMode.SINGLE_FLIGHT);
+    }
+
+    public CacheNestedProxyStrategy(RecomputeMode recomputeMode) {
+        this.recomputeMode = recomputeMode;
+    }
+
+    // without the configuration the cache can't be indexed by its key, so any change event invalidates it
     @Override
-    public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding, ConfigFactoryContext context) {
+    public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
+                                            ConfigFactoryContext context) {
+        if (!shouldCache(context.getValueTypeForBinding(binding)))
+            return resolver;
+
+        CachingValueResolver cachingResolver = new CachingValueResolver(resolver, recomputeMode);
+        context.getEventBus().register(cachingResolver);
+        return cachingResolver;
+    }
+
+    @Override
+    public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
+                                            HierarchicalConfiguration config, ConfigFactoryContext context) {
         ValueType valueType = context.getValueTypeForBinding(binding);
-        if (valueType != ValueType.Nested)
+        if (!shouldCache(valueType))
             return resolver; // only wrap nested types
 
-        CachingValueResolver cachingResolver = new CachingValueResolver(resolver);
-        context.getEventBus().register(cachingResolver);
+        CachingValueResolver cachingResolver = new CachingValueResolver(resolver, recomputeMode);
+        context.getInvalidationIndex().register(cachingResolver, binding, config);
         return cachingResolver;
     }
+
+    protected boolean shouldCache(ValueType valueType) {
+        return valueType == ValueType.Nested;
+    }
 }
@@ -26,7 +26,8 @@ import com.github.steveash.typedconfig.resolver.ValueResolver;
  */
 public class CacheNothingStrategy implements CacheStrategy {
     @Override
-    public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding, ConfigFactoryContext context) {
+    public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
+                                            ConfigFactoryContext context) {
         return resolver;
     }
 }
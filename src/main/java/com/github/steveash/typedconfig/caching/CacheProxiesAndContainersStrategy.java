@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.github.steveash.typedconfig.resolver.ValueType;
+
+/**
+ * Like {@link CacheNestedProxyStrategy} but also caches the collections returned by container bindings (lists,
+ * sets, maps) along with the element proxies in them.  A cached container is only rebuilt after a change at, above,
+ * or under its key; changes anywhere else leave it alone.  The element proxies read through to the same
+ * configuration nodes so references that callers hold on to still see updated values after a change
+ *
+ * @author Steve Ash
+ */
+public class CacheProxiesAndContainersStrategy extends CacheNestedProxyStrategy {
+
+    public CacheProxiesAndContainersStrategy() {
+        super();
+    }
+
+    public CacheProxiesAndContainersStrategy(RecomputeMode recomputeMode) {
+        super(recomputeMode);
+    }
+
+    @Override
+    protected boolean shouldCache(ValueType valueType) {
+        return valueType == ValueType.Nested || valueType == ValueType.Container;
+    }
+}
@@ -19,6 +19,7 @@ package com.github.steveash.typedconfig.caching;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
+import org.apache.commons.configuration.HierarchicalConfiguration;
 
 /**
  * The strategy for caching values from the configuration
@@ -27,4 +28,19 @@ import com.github.steveash.typedconfig.resolver.ValueResolver;
 public interface CacheStrategy {
 
     ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding, ConfigFactoryContext context);
+
+    /**
+     * The version the library calls.  Strategies that need to know where the binding's key lives (e.g. to only be
+     * invalidated by changes to it) override this; the default ignores the configuration so strategies that only
+     * implement the three argument version keep working
+     * @param resolver
+     * @param binding
+     * @param config the configuration that the binding's key is relative to
+     * @param context
+     * @return
+     */
+    default ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
+                                             HierarchicalConfiguration config, ConfigFactoryContext context) {
+        return decorateForCaching(resolver, binding, context);
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.google.common.collect.MapMaker;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.SubnodeConfiguration;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A version counter per root configuration that is bumped on every change to it (or to any of its subnode
+ * configurations).  Caches remember the version they computed their value under and recompute when it no longer
+ * matches, so invalidating everything under a root is a single increment.
+ * Thread safe
+ *
+ * @author Steve Ash
+ */
+public class ConfigVersions {
+
+    private final ConcurrentMap<HierarchicalConfiguration, AtomicLong> versions =
+            new MapMaker().weakKeys().makeMap();
+
+    /**
+     * @param config any configuration (root or subnode)
+     * @return the version counter of the root of the given configuration
+     */
+    public AtomicLong versionFor(HierarchicalConfiguration config) {
+        HierarchicalConfiguration root = rootOf(config);
+        AtomicLong version = versions.get(root);
+        if (version == null) {
+            AtomicLong newVersion = new AtomicLong();
+            version = versions.putIfAbsent(root, newVersion);
+            if (version == null)
+                version = newVersion;
+        }
+        return version;
+    }
+
+    /**
+     * Marks everything under the root of the given configuration as changed
+     * @param source the configuration that fired the change
+     */
+    public void bump(Object source) {
+        if (!(source instanceof HierarchicalConfiguration))
+            return;
+
+        // proxies made directly on a subnode config are listening to it but are versioned under its parent
+        bumpIfPresent(source);
+        if (source instanceof SubnodeConfiguration)
+            bumpIfPresent(((SubnodeConfiguration) source).getParent());
+    }
+
+    private void bumpIfPresent(Object config) {
+        AtomicLong version = versions.get(config);
+        if (version != null)
+            version.incrementAndGet();
+    }
+
+    /**
+     * @param config
+     * @return the configuration that owns the node tree of the given configuration
+     */
+    public static HierarchicalConfiguration rootOf(HierarchicalConfiguration config) {
+        if (config instanceof SubnodeConfiguration)
+            return ((SubnodeConfiguration) config).getParent();
+        return config;
+    }
+}
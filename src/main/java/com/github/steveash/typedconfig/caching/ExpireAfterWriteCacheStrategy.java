@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches every value for the given time after it is read; the first access after that reads it from the
+ * configuration again
+ *
+ * @author Steve Ash
+ */
+public class ExpireAfterWriteCacheStrategy extends TimedCacheStrategy {
+
+    public ExpireAfterWriteCacheStrategy(long duration, TimeUnit unit) {
+        this(duration, unit, Ticker.systemTicker());
+    }
+
+    public ExpireAfterWriteCacheStrategy(long duration, TimeUnit unit, Ticker ticker) {
+        super(duration, unit, ticker);
+    }
+
+    @Override
+    protected Executor getRefreshExecutor() {
+        return null;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.SubnodeConfiguration;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.tree.DefaultConfigurationKey;
+import org.apache.commons.configuration.tree.DefaultExpressionEngine;
+import org.apache.commons.configuration.tree.ExpressionEngine;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of which cached values live at which configuration keys so that a change event only invalidates
+ * the caches that could be affected by it: those at the changed key, under it, or above it (since their subtree
+ * changed).  The keys are kept in a trie per root configuration.
+ * <p/>
+ * Only keys of the default expression engine can be indexed.  Anything that can't be placed in the trie (other
+ * expression engines, subnode configurations that don't know their own key) is invalidated on every event.  Events
+ * that don't name a single key (clear, reload, changes made through subnode configurations) invalidate everything.
+ * <p/>
+ * Registered caches are only weakly referenced so that proxies that are rebuilt (or simply dropped) can be
+ * collected; the entries of collected caches are cleaned up on the next registration or event.
+ * Thread safe
+ *
+ * @author Steve Ash
+ */
+public class InvalidationIndex {
+
+    private final Map<HierarchicalConfiguration, Node> roots = new MapMaker().weakKeys().makeMap();
+    private final Set<TargetRef> unindexed = Sets.newLinkedHashSet();
+    private final ReferenceQueue<Invalidatable> collectedTargets = new ReferenceQueue<Invalidatable>();
+    private long registeredCount = 0;
+    private long collectedCount = 0;
+
+    /**
+     * Registers the given cache to be invalidated when the value for the binding changes
+     * @param target
+     * @param binding the binding of the cached value; its key is relative to the config
+     * @param config the configuration that the binding is looked up in
+     */
+    public synchronized void register(Invalidatable target, ConfigBinding binding, HierarchicalConfiguration config) {
+        cleanUp();
+        registeredCount += 1;
+        List<Segment> path = absolutePath(binding.getConfigKeyToLookup(), config);
+        if (path == null) {
+            unindexed.add(new TargetRef(target, collectedTargets, unindexed));
+            return;
+        }
+
+        Node node = rootNodeFor(ConfigVersions.rootOf(config), true);
+        for (Segment segment : path) {
+            node = node.child(segment);
+        }
+        node.targets.add(new TargetRef(target, collectedTargets, node.targets));
+    }
+
+    /**
+     * Removes the entries of caches that have been garbage collected.  This happens on every registration and
+     * event anyways so calling it is only needed to get accurate metrics
+     */
+    public synchronized void cleanUp() {
+        TargetRef ref;
+        while ((ref = (TargetRef) collectedTargets.poll()) != null) {
+            if (ref.owner.remove(ref))
+                collectedCount += 1;
+        }
+    }
+
+    /**
+     * @return the number of registered caches that haven't been collected yet
+     */
+    public synchronized long getLiveCount() {
+        cleanUp();
+        return registeredCount - collectedCount;
+    }
+
+    /**
+     * @return the total number of registered caches that have been garbage collected and removed from the index
+     */
+    public synchronized long getCollectedCount() {
+        cleanUp();
+        return collectedCount;
+    }
+
+    /**
+     * Invalidates the caches that might be affected by the given event
+     * @param event
+     */
+    public synchronized void invalidate(ConfigurationEvent event) {
+        cleanUp();
+        List<Segment> path = eventPath(event);
+        Node root = rootNodeFor(event.getSource(), false);
+        if (path == null || root == null) {
+            invalidateAll();
+            return;
+        }
+
+        invalidateAll(unindexed);
+        invalidateAlong(root, path, 0, isStructural(event));
+    }
+
+    /**
+     * Invalidates every registered cache
+     */
+    public synchronized void invalidateAll() {
+        invalidateAll(unindexed);
+        for (Node root : roots.values()) {
+            invalidateSubtree(root);
+        }
+    }
+
+    // everything above and along the path is invalidated and the whole subtree at the end of the path
+    private void invalidateAlong(Node node, List<Segment> path, int depth, boolean lastIsWildcard) {
+        if (depth == path.size()) {
+            invalidateSubtree(node);
+            return;
+        }
+        invalidateAll(node.targets);
+
+        Segment segment = path.get(depth);
+        Children children = node.children.get(segment.name);
+        if (children == null)
+            return;
+
+        // an un-indexed key refers to every node with that name
+        if (children.unindexed != null)
+            invalidateAlong(children.unindexed, path, depth + 1, lastIsWildcard);
+        boolean wildcard = segment.index < 0 || (lastIsWildcard && depth == path.size() - 1);
+        if (wildcard) {
+            for (Node indexed : children.indexed.values()) {
+                invalidateAlong(indexed, path, depth + 1, lastIsWildcard);
+            }
+        } else {
+            Node indexed = children.indexed.get(segment.index);
+            if (indexed != null)
+                invalidateAlong(indexed, path, depth + 1, lastIsWildcard);
+        }
+    }
+
+    private void invalidateSubtree(Node node) {
+        invalidateAll(node.targets);
+        for (Children children : node.children.values()) {
+            if (children.unindexed != null)
+                invalidateSubtree(children.unindexed);
+            for (Node indexed : children.indexed.values()) {
+                invalidateSubtree(indexed);
+            }
+        }
+    }
+
+    private static void invalidateAll(Set<TargetRef> targets) {
+        for (TargetRef ref : targets) {
+            Invalidatable target = ref.get();
+            if (target != null)
+                target.invalidate();
+        }
+    }
+
+    private Node rootNodeFor(Object root, boolean create) {
+        if (!(root instanceof HierarchicalConfiguration))
+            return null;
+
+        Node node = roots.get(root);
+        if (node == null && create) {
+            node = new Node();
+            roots.put((HierarchicalConfiguration) root, node);
+        }
+        return node;
+    }
+
+    // adding or removing a node shifts the indexes of all of its siblings
+    private static boolean isStructural(ConfigurationEvent event) {
+        return event.getType() != AbstractConfiguration.EVENT_SET_PROPERTY;
+    }
+
+    private static List<Segment> eventPath(ConfigurationEvent event) {
+        switch (event.getType()) {
+            case AbstractConfiguration.EVENT_SET_PROPERTY:
+            case AbstractConfiguration.EVENT_ADD_PROPERTY:
+            case AbstractConfiguration.EVENT_CLEAR_PROPERTY:
+            case HierarchicalConfiguration.EVENT_CLEAR_TREE:
+            case HierarchicalConfiguration.EVENT_ADD_NODES:
+                break;
+            default:
+                return null;
+        }
+        if (event.getPropertyName() == null || !(event.getSource() instanceof HierarchicalConfiguration))
+            return null;
+
+        HierarchicalConfiguration source = (HierarchicalConfiguration) event.getSource();
+        return parse(event.getPropertyName(), source.getExpressionEngine());
+    }
+
+    private static List<Segment> absolutePath(String key, HierarchicalConfiguration config) {
+        List<Segment> path = Lists.newArrayList();
+        if (config instanceof SubnodeConfiguration) {
+            String subnodeKey = ((SubnodeConfiguration) config).getSubnodeKey();
+            if (subnodeKey == null)
+                return null;
+            List<Segment> prefix = parse(subnodeKey, ConfigVersions.rootOf(config).getExpressionEngine());
+            if (prefix == null)
+                return null;
+            path.addAll(prefix);
+        }
+        // synthetic bindings (like the toString of a proxy) depend on everything in the config
+        if (key.startsWith("$"))
+            return path;
+
+        List<Segment> local = parse(key, config.getExpressionEngine());
+        if (local == null)
+            return null;
+        path.addAll(local);
+        return path;
+    }
+
+    private static List<Segment> parse(String key, ExpressionEngine engine) {
+        if (engine == null)
+            engine = HierarchicalConfiguration.getDefaultExpressionEngine();
+        if (!(engine instanceof DefaultExpressionEngine))
+            return null;
+
+        List<Segment> segments = Lists.newArrayList();
+        DefaultConfigurationKey.KeyIterator iter =
+                new DefaultConfigurationKey((DefaultExpressionEngine) engine, key).iterator();
+        while (iter.hasNext()) {
+            String name = iter.nextKey(true);
+            segments.add(new Segment(name, iter.hasIndex() ? iter.getIndex() : -1));
+        }
+        return segments;
+    }
+
+    // knows the set it lives in so that it can be removed from it once it's collected
+    private static final class TargetRef extends WeakReference<Invalidatable> {
+        private final Set<TargetRef> owner;
+
+        private TargetRef(Invalidatable target, ReferenceQueue<Invalidatable> queue, Set<TargetRef> owner) {
+            super(target, queue);
+            this.owner = owner;
+        }
+    }
+
+    private static final class Segment {
+        private final String name;
+        private final int index;
+
+        private Segment(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+    }
+
+    private static final class Children {
+        private Node unindexed;
+        private final Map<Integer, Node> indexed = Maps.newHashMap();
+    }
+
+    private static final class Node {
+        private final Set<TargetRef> targets = Sets.newLinkedHashSet();
+        private final Map<String, Children> children = Maps.newHashMap();
+
+        private Node child(Segment segment) {
+            Children named = children.get(segment.name);
+            if (named == null) {
+                named = new Children();
+                children.put(segment.name, named);
+            }
+            if (segment.index < 0) {
+                if (named.unindexed == null)
+                    named.unindexed = new Node();
+                return named.unindexed;
+            }
+            Node node = named.indexed.get(segment.index);
+            if (node == null) {
+                node = new Node();
+                named.indexed.put(segment.index, node);
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+/**
+ * What a cache does when several threads ask for a value that isn't cached (or was just invalidated) at the
+ * same time
+ *
+ * @author Steve Ash
+ */
+public enum RecomputeMode {
+
+    /**
+     * Every thread that misses computes the value itself and the last one wins.  No locking at all, but a burst of
+     * requests right after an invalidation will all rebuild the value
+     */
+    UNSYNCHRONIZED,
+
+    /**
+     * Only one thread computes the value; the others block until it is done and then use that value
+     */
+    SINGLE_FLIGHT,
+
+    /**
+     * Only one thread computes the value; while it does the others get the previous value (if there is one) instead
+     * of waiting
+     */
+    STALE_WHILE_REVALIDATE
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches every value for the given time after it is read; the first access after that starts a refresh on the
+ * executor and keeps returning the old value until the refresh is done.  Only the very first read of each value
+ * blocks the caller.  If the refresh fails the old value is kept for another full duration before the next access
+ * tries again, so a failing source isn't retried on every read
+ *
+ * @author Steve Ash
+ */
+public class RefreshAfterWriteCacheStrategy extends TimedCacheStrategy {
+
+    private final Executor refreshExecutor;
+
+    public RefreshAfterWriteCacheStrategy(long duration, TimeUnit unit, Executor refreshExecutor) {
+        this(duration, unit, refreshExecutor, Ticker.systemTicker());
+    }
+
+    public RefreshAfterWriteCacheStrategy(long duration, TimeUnit unit, Executor refreshExecutor, Ticker ticker) {
+        super(duration, unit, ticker);
+        this.refreshExecutor = Preconditions.checkNotNull(refreshExecutor);
+    }
+
+    @Override
+    protected Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.ConfigFactoryContext;
+import com.github.steveash.typedconfig.annotation.CacheTtl;
+import com.github.steveash.typedconfig.resolver.ExpiringCachingValueResolver;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base for the strategies that cache every value for a period of time after it is read.  These don't rely on
+ * configuration events at all, so they give bounded staleness for values that can change without an event
+ * (interpolated values, system properties, etc.).  The time can be overridden per method with {@link CacheTtl}
+ *
+ * @author Steve Ash
+ */
+public abstract class TimedCacheStrategy implements CacheStrategy {
+
+    private final long defaultTtlNanos;
+    private final Ticker ticker;
+
+    protected TimedCacheStrategy(long duration, TimeUnit unit, Ticker ticker) {
+        Preconditions.checkArgument(duration >= 0, "the cache duration can't be negative");
+        this.defaultTtlNanos = unit.toNanos(duration);
+        this.ticker = Preconditions.checkNotNull(ticker);
+    }
+
+    /**
+     * @return the executor to refresh expired values on or null to read them again on access
+     */
+    protected abstract Executor getRefreshExecutor();
+
+    @Override
+    public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
+                                            ConfigFactoryContext context) {
+        return new ExpiringCachingValueResolver(resolver, ttlNanosFor(binding), ticker, getRefreshExecutor());
+    }
+
+    private long ttlNanosFor(ConfigBinding binding) {
+        for (Annotation annotation : binding.getAnnotations()) {
+            if (annotation instanceof CacheTtl) {
+                CacheTtl ttl = (CacheTtl) annotation;
+                return ttl.unit().toNanos(ttl.value());
+            }
+        }
+        return defaultTtlNanos;
+    }
+}
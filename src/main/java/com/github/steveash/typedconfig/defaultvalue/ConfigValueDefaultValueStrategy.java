@@ -21,7 +21,9 @@ import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.Option;
 import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.exception.InvalidConfigurationValueException;
 import com.github.steveash.typedconfig.exception.InvalidProxyException;
+import com.github.steveash.typedconfig.resolver.ForwardingValueResolver;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 import com.github.steveash.typedconfig.resolver.ValueType;
 
@@ -34,7 +36,8 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
  * method.  The strategy is:
  *   If the defaultLookup is set try that
  *     If defaultLookup finds nothing then move on to try default Value
- *   If the defaultValue is set try that
+ *   If the defaultValue is set try that; the default value is converted and validated once when the
+ *     resolver is decorated so a bad default fails when the proxy is made
  *   If neither of these resolve and the property is marked as required (or its primitive which is implicitly reqd)
  *     then throw a requiredPropertyMissing exception
  *
@@ -60,7 +63,9 @@ public class ConfigValueDefaultValueStrategy implements DefaultValueStrategy {
         String defaultValue = configValue.defaultValue();
         if (isNotBlank(defaultValue)) {
             throwIfNotSimpleValueType(valueType, binding);
-            resolver = new DefaultGivenValueResolverDecorator(resolver, defaultValue);
+            Object converted = DefaultGivenValueResolverDecorator.convertDefaultValue(resolver, defaultValue);
+            throwIfDefaultFailsValidation(resolver, converted, defaultValue, context, interfaze, method);
+            resolver = new DefaultGivenValueResolverDecorator(resolver, converted);
         }
 
         if (isValueRequired(binding)) {
@@ -76,6 +81,22 @@ public class ConfigValueDefaultValueStrategy implements DefaultValueStrategy {
                     "value set for it.");
     }
 
+    private void throwIfDefaultFailsValidation(ValueResolver resolver, final Object converted, String defaultValue,
+                                               ConfigFactoryContext context, Class<?> interfaze, Method method) {
+        ValueResolver defaultResolver = new ForwardingValueResolver(resolver) {
+            @Override
+            public Object resolve() {
+                return converted;
+            }
+        };
+        try {
+            context.getValidationStrategy().decorateForValidation(defaultResolver, interfaze, method).resolve();
+        } catch (RuntimeException e) {
+            throw new InvalidConfigurationValueException("The default value [" + defaultValue + "] given for " +
+                    "config key " + resolver.configurationKeyToLookup() + " is not valid: " + e.getMessage());
+        }
+    }
+
     // value is required at a certain point in the pipeline for primitives (which would otherwise be unboxed
     // throwing a NPE or if they are marked as "required"
     private boolean isValueRequired(ConfigBinding newMethodBinding) {
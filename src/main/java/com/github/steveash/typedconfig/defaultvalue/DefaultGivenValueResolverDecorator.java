@@ -21,6 +21,9 @@ import com.github.steveash.typedconfig.resolver.ForwardingValueResolver;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 
 /**
+ * Returns the given default value when the delegate resolves nothing.  The default is converted once when the
+ * decorator is built so an invalid default fails when the proxy is made and not on first access
+ *
  * @author Steve Ash
  */
 public class DefaultGivenValueResolverDecorator extends ForwardingValueResolver {
@@ -28,12 +31,23 @@ public class DefaultGivenValueResolverDecorator extends ForwardingValueResolver
     private final Object defaultValue;
 
     public DefaultGivenValueResolverDecorator(ValueResolver delegate, String defaultValueAsString) {
+        this(delegate, convertDefaultValue(delegate, defaultValueAsString));
+    }
+
+    /**
+     * @param convertedDefaultValue the default value already converted to the type that the delegate resolves
+     */
+    public DefaultGivenValueResolverDecorator(ValueResolver delegate, Object convertedDefaultValue) {
         super(delegate);
+        this.defaultValue = convertedDefaultValue;
+    }
+
+    static Object convertDefaultValue(ValueResolver delegate, String defaultValueAsString) {
         try {
-            this.defaultValue = delegate.convertDefaultValue(defaultValueAsString);
+            return delegate.convertDefaultValue(defaultValueAsString);
         } catch (RuntimeException e) {
             throw new InvalidConfigurationValueException("Cannot convert the default value [" +
-                    defaultValueAsString + " given for config key " + delegate.configurationKeyToLookup() +
+                    defaultValueAsString + "] given for config key " + delegate.configurationKeyToLookup() +
                     ": " + e.getMessage());
         }
     }
@@ -42,8 +56,12 @@ public class DefaultGivenValueResolverDecorator extends ForwardingValueResolver
     public Object resolve() {
         Object o = delegate.resolve();
         if (o != null)
-            return null;
+            return o;
+
+        return defaultValue;
+    }
 
+    public Object getDefaultValue() {
         return defaultValue;
     }
 }
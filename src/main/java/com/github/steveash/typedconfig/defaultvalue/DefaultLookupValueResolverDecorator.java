@@ -35,8 +35,12 @@ public class DefaultLookupValueResolverDecorator extends ForwardingValueResolver
     public Object resolve() {
         Object o = delegate.resolve();
         if (o != null)
-            return null;
+            return o;
 
         return defaultResolver.resolve();
     }
+
+    public ValueResolver getDefaultResolver() {
+        return defaultResolver;
+    }
 }
@@ -44,4 +44,8 @@ public class RequiredValueResolverDecorator extends ForwardingValueResolver {
         throw RequiredConfigurationKeyNotPresentException.makeForMissingKey(delegate.configurationKeyToLookup(),
                 config);
     }
+
+    public HierarchicalConfiguration getConfig() {
+        return config;
+    }
 }
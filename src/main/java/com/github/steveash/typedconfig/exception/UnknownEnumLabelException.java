@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.exception;
+
+/**
+ * Thrown when a configuration value isn't a label of the enum it's read as.  A bad value can sit in the
+ * configuration for a while and be read on hot paths so this is cheap to throw: it doesn't fill in its stack trace
+ * and the message is only built if someone asks for it
+ *
+ * @author Steve Ash
+ */
+public class UnknownEnumLabelException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final String key;
+    private final String label;
+    private final Class<?> enumType;
+
+    public UnknownEnumLabelException(String key, String label, Class<?> enumType) {
+        this.key = key;
+        this.label = label;
+        this.enumType = enumType;
+    }
+
+    @Override
+    public String getMessage() {
+        return "The value of the configuration key " + key + " is " + label + " which is not a member of the enum " +
+                enumType.getName();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Class<?> getEnumType() {
+        return enumType;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -23,6 +23,11 @@ import org.apache.commons.configuration.HierarchicalConfiguration;
  * defaultLookup values.  Note that this is really dependent on the particular expression engine.  The default
  * expression engine wants to combine things with dots (basekey.localkey) wheres the xpath engine probably
  * wants slashes (basekey/localkey)
+ * <p/>
+ * Combined keys are computed once per proxy interface and reused (see
+ * {@link com.github.steveash.typedconfig.ConfigFactoryContext#getBindingPlanFor}) for every configuration whose
+ * expression engine has the same type and, for the default engine, the same delimiters.  So implementations must
+ * only depend on those and not on anything else about the configuration
  * @author Steve Ash
  */
 public interface KeyCombinationStrategy {
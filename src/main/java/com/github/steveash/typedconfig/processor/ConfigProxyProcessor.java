@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.processor;
+
+import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.annotation.ConfigProxy;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a proxy class at compile time for each @ConfigProxy interface so that
+ * {@link com.github.steveash.typedconfig.ConfigProxyFactory#make} doesn't have to generate or reflectively
+ * dispatch to one at runtime (see {@link com.github.steveash.typedconfig.proxy.PrecompiledProxyStrategy}).  The
+ * generated class also has constants for the base key and the local key of each method.
+ * <p/>
+ * Conversion, defaults, validation and caching still happen in the value resolvers that are passed to the
+ * generated class, so a generated proxy behaves exactly like the runtime ones.  Interfaces that can't be
+ * implemented from another top level class (private, generic) are skipped and get runtime proxies
+ *
+ * @author Steve Ash
+ */
+@SupportedAnnotationTypes("com.github.steveash.typedconfig.annotation.ConfigProxy")
+public class ConfigProxyProcessor extends AbstractProcessor {
+
+    private static final String CLASS_PREFIX = "TypedConfig_";
+    private static final String GENERATED_PROXY = "com.github.steveash.typedconfig.proxy.GeneratedProxy";
+    private static final String PRIMITIVES = "com.github.steveash.typedconfig.resolver.PrimitiveValueResolvers";
+    private static final String RESOLVER = "com.github.steveash.typedconfig.resolver.ValueResolver";
+    private static final String RESOLVER_MAP = "com.google.common.collect.ImmutableMap<java.lang.reflect.Method, " +
+            RESOLVER + ">";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(ConfigProxy.class)) {
+            if (element.getKind() != ElementKind.INTERFACE)
+                continue; // only interfaces can be proxied; the annotation is harmless anywhere else
+
+            TypeElement interfaze = (TypeElement) element;
+            if (!canImplement(interfaze))
+                continue;
+            List<ExecutableElement> resolved = new ArrayList<ExecutableElement>();
+            List<ExecutableElement> unresolved = new ArrayList<ExecutableElement>();
+            if (!collectMethods(interfaze, resolved, unresolved))
+                continue;
+            try {
+                writeProxyClass(interfaze, resolved, unresolved);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Couldn't write the config proxy class: " + e.getMessage(), interfaze);
+            }
+        }
+        return false;
+    }
+
+    private boolean canImplement(TypeElement interfaze) {
+        if (!interfaze.getTypeParameters().isEmpty())
+            return false;
+        for (Element e = interfaze; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE))
+                return false;
+        }
+        return true;
+    }
+
+    // the methods declared on the interface get resolvers; abstract methods inherited from super interfaces don't
+    private boolean collectMethods(TypeElement interfaze, List<ExecutableElement> resolved,
+                                   List<ExecutableElement> unresolved) {
+        Set<String> seen = new HashSet<String>();
+        boolean ok = true;
+        for (Element member : processingEnv.getElementUtils().getAllMembers(interfaze)) {
+            if (member.getKind() != ElementKind.METHOD || !member.getModifiers().contains(Modifier.ABSTRACT))
+                continue;
+            ExecutableElement method = (ExecutableElement) member;
+            if (isObjectMethod(method) || !seen.add(signatureOf(interfaze, method)))
+                continue;
+            if (!method.getTypeParameters().isEmpty())
+                return false;
+
+            if (method.getEnclosingElement().equals(interfaze)) {
+                ok &= checkHasKey(method);
+                resolved.add(method);
+            } else {
+                unresolved.add(method);
+            }
+        }
+        return ok;
+    }
+
+    // the same rule as ConfigFactoryContext uses to find the key at runtime, just failing sooner
+    private boolean checkHasKey(ExecutableElement method) {
+        if (localKeyOf(method) != null || method.getParameters().isEmpty())
+            return true;
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Config proxy method " +
+                method.getSimpleName() + " takes parameters which is not supported unless it has an explicit " +
+                "@Config key", method);
+        return false;
+    }
+
+    private void writeProxyClass(TypeElement interfaze, List<ExecutableElement> resolved,
+                                 List<ExecutableElement> unresolved) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(interfaze).getQualifiedName().toString();
+        String className = generatedSimpleName(interfaze);
+        String interfaceName = interfaze.getQualifiedName().toString();
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                (packageName.isEmpty() ? "" : packageName + ".") + className, interfaze);
+
+        PrintWriter out = new PrintWriter(file.openWriter());
+        try {
+            if (!packageName.isEmpty())
+                out.println("package " + packageName + ";");
+            out.println();
+            out.println("/**");
+            out.println(" * Proxy for {@link " + interfaceName + "} generated by " +
+                    ConfigProxyProcessor.class.getName() + "; do not edit");
+            out.println(" */");
+            out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            out.println("public final class " + className + " extends " + GENERATED_PROXY + " implements " +
+                    interfaceName + " {");
+            out.println();
+            out.println("    public static final String BASE_KEY = " +
+                    literal(interfaze.getAnnotation(ConfigProxy.class).basekey()) + ";");
+            for (Map.Entry<String, String> key : keyConstants(resolved).entrySet()) {
+                out.println("    public static final String " + key.getKey() + " = " + literal(key.getValue()) + ";");
+            }
+            out.println();
+            for (int i = 0; i < resolved.size(); i++) {
+                ExecutableElement method = resolved.get(i);
+                StringBuilder lookup = new StringBuilder("declaredMethod(" + interfaceName + ".class, " +
+                        literal(method.getSimpleName().toString()));
+                for (VariableElement param : method.getParameters()) {
+                    lookup.append(", ").append(erasure(param.asType())).append(".class");
+                }
+                out.println("    private static final java.lang.reflect.Method method" + i + " = " + lookup + ");");
+                out.println("    private final " + RESOLVER + " resolver" + i + ";");
+            }
+            out.println();
+            out.println("    public " + className + "(Class<?> interfaze, " + RESOLVER_MAP + " resolvers,");
+            out.println("            " + RESOLVER + " hashResolver, " + RESOLVER + " toStringResolver) {");
+            out.println("        super(interfaze, resolvers, hashResolver, toStringResolver);");
+            for (int i = 0; i < resolved.size(); i++) {
+                out.println("        this.resolver" + i + " = resolverFor(resolvers, method" + i + ");");
+            }
+            out.println("    }");
+
+            for (int i = 0; i < resolved.size(); i++) {
+                ExecutableElement method = resolved.get(i);
+                writeMethod(out, method, memberOf(interfaze, method),
+                        resolveExpression(memberOf(interfaze, method).getReturnType(), "resolver" + i));
+            }
+            for (ExecutableElement method : unresolved) {
+                writeMethod(out, method, memberOf(interfaze, method), null);
+            }
+            out.println("}");
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeMethod(PrintWriter out, ExecutableElement method, ExecutableType type,
+                             String resolveExpression) {
+        out.println();
+        out.println("    @Override");
+        StringBuilder params = new StringBuilder();
+        for (int i = 0; i < type.getParameterTypes().size(); i++) {
+            if (i > 0)
+                params.append(", ");
+            params.append(type.getParameterTypes().get(i)).append(" arg").append(i);
+        }
+        out.println("    public final " + type.getReturnType() + " " + method.getSimpleName() + "(" + params + ") {");
+        if (resolveExpression == null) {
+            out.println("        throw noResolverFor(" + literal(method.getSimpleName().toString()) + ");");
+        } else if (type.getReturnType().getKind() == TypeKind.VOID) {
+            out.println("        " + resolveExpression + ";");
+        } else {
+            out.println("        return " + resolveExpression + ";");
+        }
+        out.println("    }");
+    }
+
+    // mirrors ProxyClassGenerator: the specialized primitives don't box and the rest cast to the exact wrapper
+    private String resolveExpression(TypeMirror returnType, String resolver) {
+        switch (returnType.getKind()) {
+            case INT:
+                return PRIMITIVES + ".resolveInt(" + resolver + ")";
+            case LONG:
+                return PRIMITIVES + ".resolveLong(" + resolver + ")";
+            case DOUBLE:
+                return PRIMITIVES + ".resolveDouble(" + resolver + ")";
+            case BOOLEAN:
+                return PRIMITIVES + ".resolveBoolean(" + resolver + ")";
+            case BYTE:
+            case SHORT:
+            case FLOAT:
+            case CHAR:
+                String wrapper = processingEnv.getTypeUtils().boxedClass(
+                        processingEnv.getTypeUtils().getPrimitiveType(returnType.getKind())).getQualifiedName()
+                        .toString();
+                return "((" + wrapper + ") " + resolver + ".resolve())." + returnType + "Value()";
+            case VOID:
+                return resolver + ".resolve()";
+            default:
+                if (returnType.toString().equals("java.lang.Object"))
+                    return resolver + ".resolve()";
+                return "(" + returnType + ") " + resolver + ".resolve()";
+        }
+    }
+
+    private Map<String, String> keyConstants(List<ExecutableElement> methods) {
+        Map<String, String> constants = new LinkedHashMap<String, String>();
+        for (ExecutableElement method : methods) {
+            String key = localKeyOf(method);
+            if (key == null)
+                key = method.getSimpleName().toString();
+            String name = "KEY_" + constantName(key);
+            String candidate = name;
+            for (int i = 2; constants.containsKey(candidate) && !constants.get(candidate).equals(key); i++) {
+                candidate = name + "_" + i;
+            }
+            constants.put(candidate, key);
+        }
+        return constants;
+    }
+
+    // the key as ConfigFactoryContext#getLocalConfigKey finds it; null if the method isn't a property
+    private static String localKeyOf(ExecutableElement method) {
+        Config config = method.getAnnotation(Config.class);
+        if (config != null && !config.value().equals(""))
+            return config.value();
+
+        String name = method.getSimpleName().toString();
+        int argCount = method.getParameters().size();
+        if (argCount == 0 && name.startsWith("get"))
+            return Introspector.decapitalize(name.substring(3));
+        if (argCount == 0 && name.startsWith("is"))
+            return Introspector.decapitalize(name.substring(2));
+        if (argCount == 1 && name.startsWith("set"))
+            return Introspector.decapitalize(name.substring(3));
+        return (argCount == 0 ? name : null);
+    }
+
+    private static String constantName(String key) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(key.charAt(i - 1)))
+                name.append('_');
+            name.append(Character.isLetterOrDigit(c) ? Character.toUpperCase(c) : '_');
+        }
+        String trimmed = name.toString().replaceAll("_+", "_").replaceAll("^_|_$", "");
+        return (trimmed.isEmpty() ? "ROOT" : trimmed);
+    }
+
+    private static String generatedSimpleName(TypeElement interfaze) {
+        StringBuilder name = new StringBuilder(interfaze.getSimpleName());
+        for (Element e = interfaze.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE;
+             e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return CLASS_PREFIX + name;
+    }
+
+    private static boolean isObjectMethod(ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        int argCount = method.getParameters().size();
+        return (argCount == 0 && (name.equals("hashCode") || name.equals("toString"))) ||
+                (argCount == 1 && name.equals("equals") &&
+                        method.getParameters().get(0).asType().toString().equals("java.lang.Object"));
+    }
+
+    private String signatureOf(TypeElement interfaze, ExecutableElement method) {
+        StringBuilder signature = new StringBuilder(method.getSimpleName());
+        for (TypeMirror param : memberOf(interfaze, method).getParameterTypes()) {
+            signature.append(',').append(erasure(param));
+        }
+        return signature.toString();
+    }
+
+    // the method as seen from the interface, so type variables of generic super interfaces are filled in
+    private ExecutableType memberOf(TypeElement interfaze, ExecutableElement method) {
+        return (ExecutableType) processingEnv.getTypeUtils().asMemberOf((DeclaredType) interfaze.asType(), method);
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                literal.append('\\').append(c);
+            else if (c < 0x20 || c > 0x7e)
+                literal.append(String.format("\\u%04x", (int) c));
+            else
+                literal.append(c);
+        }
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.proxy;
+
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds proxies by generating a real class for each proxy interface at runtime.  The generated class calls each
+ * method's resolver through a final field so there is no Method hashing or argument array on each invocation like
+ * there is with {@link JdkProxyStrategy}.  The generated class is built once per interface and shared by every
+ * instance (and every factory).
+ * <p/>
+ * On a Java 9+ runtime the class is defined in the same class loader and package as the interface so it works for
+ * package private interfaces too.  On older runtimes the class is defined in a child class loader and that only
+ * works for public interfaces with public return types; anything that can't be generated falls back to jdk proxies
+ * <p/>
+ * The generated class is remembered in a {@link ClassValue} on the interface so it doesn't keep the interface's class
+ * loader reachable once the application that owns it is unloaded
+ *
+ * @author Steve Ash
+ */
+public class GeneratedClassProxyStrategy implements ProxyStrategy {
+    private static final Logger log = LoggerFactory.getLogger(GeneratedClassProxyStrategy.class);
+
+    private static final AtomicInteger classCounter = new AtomicInteger();
+    private static final ClassValue<Optional<ProxyClass>> proxyClasses = new ClassValue<Optional<ProxyClass>>() {
+        @Override
+        protected Optional<ProxyClass> computeValue(Class<?> interfaze) {
+            try {
+                return generateProxyClass(interfaze);
+            } catch (Exception e) {
+                throw Throwables.propagate(e);
+            }
+        }
+    };
+
+    private final ProxyStrategy fallbackStrategy = new JdkProxyStrategy();
+
+    @Override
+    public <T> T makeProxy(Class<T> interfaze, ImmutableMap<Method, ValueResolver> resolvers,
+                           ValueResolver hashResolver, ValueResolver toStringResolver) {
+
+        Optional<ProxyClass> proxyClass = proxyClasses.get(interfaze);
+        if (!proxyClass.isPresent())
+            return fallbackStrategy.makeProxy(interfaze, resolvers, hashResolver, toStringResolver);
+
+        return interfaze.cast(proxyClass.get().newInstance(interfaze, resolvers, hashResolver, toStringResolver));
+    }
+
+    private static Optional<ProxyClass> generateProxyClass(Class<?> interfaze) throws Exception {
+        ImmutableList<Method> methods = ImmutableList.copyOf(interfaze.getDeclaredMethods());
+        String className = interfaze.getName() + "$$TypedConfig$$" + classCounter.incrementAndGet();
+        byte[] classBytes = ProxyClassGenerator.generate(className, interfaze, methods);
+        try {
+            Class<?> generated = defineInSameLoader(interfaze, classBytes);
+            if (generated == null)
+                generated = defineInChildLoader(interfaze, className, classBytes);
+            if (generated == null) {
+                log.debug("Cannot generate a proxy class for {}; falling back to jdk proxies", interfaze);
+                return Optional.absent();
+            }
+            Constructor<?> ctor = generated.getConstructor(Class.class, ImmutableMap.class, ValueResolver.class,
+                    ValueResolver.class, ValueResolver[].class);
+            return Optional.of(new ProxyClass(ctor, methods));
+
+        } catch (LinkageError e) {
+            log.debug("Cannot generate a proxy class for " + interfaze + "; falling back to jdk proxies", e);
+            return Optional.absent();
+        }
+    }
+
+    // java 9+ can define a class in the interface's own package and loader through a private lookup
+    private static Class<?> defineInSameLoader(Class<?> interfaze, byte[] classBytes) throws Exception {
+        Method privateLookupIn;
+        Method defineClass;
+        try {
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class,
+                    MethodHandles.Lookup.class);
+            defineClass = MethodHandles.Lookup.class.getMethod("defineClass", byte[].class);
+        } catch (NoSuchMethodException e) {
+            return null; // pre java 9
+        }
+        try {
+            Object lookup = privateLookupIn.invoke(null, interfaze, MethodHandles.lookup());
+            return (Class<?>) defineClass.invoke(lookup, (Object) classBytes);
+        } catch (InvocationTargetException e) {
+            log.debug("Couldn't define the proxy class in the loader of " + interfaze, e.getCause());
+            return null;
+        }
+    }
+
+    private static Class<?> defineInChildLoader(Class<?> interfaze, String className, byte[] classBytes) {
+        if (interfaze.getClassLoader() == null || !isAccessibleFromOtherLoader(interfaze))
+            return null;
+
+        ProxyClassLoader loader = new ProxyClassLoader(interfaze.getClassLoader());
+        return loader.define(className, classBytes);
+    }
+
+    private static boolean isAccessibleFromOtherLoader(Class<?> interfaze) {
+        if (!Modifier.isPublic(interfaze.getModifiers()))
+            return false;
+
+        for (Method method : interfaze.getMethods()) {
+            Class<?> returnType = method.getReturnType();
+            while (returnType.isArray()) {
+                returnType = returnType.getComponentType();
+            }
+            if (!returnType.isPrimitive() && !Modifier.isPublic(returnType.getModifiers()))
+                return false;
+        }
+        return true;
+    }
+
+    private static final class ProxyClass {
+        private final Constructor<?> constructor;
+        private final ImmutableList<Method> methods;
+
+        private ProxyClass(Constructor<?> constructor, ImmutableList<Method> methods) {
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+
+        Object newInstance(Class<?> interfaze, ImmutableMap<Method, ValueResolver> resolvers,
+                           ValueResolver hashResolver, ValueResolver toStringResolver) {
+            ValueResolver[] fieldResolvers = new ValueResolver[methods.size()];
+            for (int i = 0; i < fieldResolvers.length; i++) {
+                fieldResolvers[i] = resolvers.get(methods.get(i));
+                if (fieldResolvers[i] == null)
+                    throw new IllegalStateException("no resolver was built for " + methods.get(i));
+            }
+            try {
+                return constructor.newInstance(interfaze, resolvers, hashResolver, toStringResolver, fieldResolvers);
+            } catch (InvocationTargetException e) {
+                throw Throwables.propagate(e.getCause());
+            } catch (Exception e) {
+                throw Throwables.propagate(e);
+            }
+        }
+    }
+
+    /**
+     * Loader for the generated classes on runtimes that can't define them directly in the interface's loader. It
+     * delegates to the interface's loader first and then to the loader of this library
+     */
+    private static final class ProxyClassLoader extends ClassLoader {
+
+        private ProxyClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            return GeneratedProxy.class.getClassLoader().loadClass(name);
+        }
+
+        Class<?> define(String name, byte[] classBytes) {
+            return defineClass(name, classBytes, 0, classBytes.length);
+        }
+    }
+}
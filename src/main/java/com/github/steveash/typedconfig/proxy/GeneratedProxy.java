@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.proxy;
+
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.collect.ImmutableMap;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Base class of the proxy classes that are generated at runtime by the {@link GeneratedClassProxyStrategy} and at
+ * compile time by the annotation processor (see {@link PrecompiledProxyStrategy}).  The generated subclass
+ * implements each interface method by calling its resolver through a final field; this class takes care of the
+ * object methods and the {@link ProxiedConfiguration} methods.  This must stay public as the generated classes live
+ * in the package of the proxy interface
+ *
+ * @author Steve Ash
+ */
+public abstract class GeneratedProxy implements ProxiedConfiguration {
+
+    private final Class<?> interfaze;
+    private final ImmutableMap<Method, ValueResolver> resolvers;
+    private final ValueResolver hashResolver;
+    private final ValueResolver toStringResolver;
+
+    protected GeneratedProxy(Class<?> interfaze, ImmutableMap<Method, ValueResolver> resolvers,
+                             ValueResolver hashResolver, ValueResolver toStringResolver) {
+        this.interfaze = interfaze;
+        this.resolvers = resolvers;
+        this.hashResolver = hashResolver;
+        this.toStringResolver = toStringResolver;
+    }
+
+    @Override
+    public Class<?> getInterfaceClass() {
+        return interfaze;
+    }
+
+    @Override
+    public ImmutableMap<Method, ValueResolver> getResolvers() {
+        return resolvers;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return ProxiedConfigurations.proxyEquals(interfaze, resolvers, obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return (Integer) hashResolver.resolve();
+    }
+
+    @Override
+    public String toString() {
+        return (String) toStringResolver.resolve();
+    }
+
+    /**
+     * Called by generated methods that are on the interface but have no resolver (i.e. methods inherited from
+     * super interfaces) to mimic the behavior of the jdk proxies
+     * @param methodName
+     * @return the exception for the generated method to throw
+     */
+    protected final RuntimeException noResolverFor(String methodName) {
+        return new IllegalStateException("no method is known for " + interfaze.getName() + "." + methodName);
+    }
+
+    /**
+     * Used by the classes generated at compile time to find the interface methods that key the resolvers
+     */
+    protected static Method declaredMethod(Class<?> interfaze, String name, Class<?>... parameterTypes) {
+        try {
+            return interfaze.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("The generated proxy for " + interfaze.getName() + " is out of date; " +
+                    "there is no method " + name + Arrays.toString(parameterTypes), e);
+        }
+    }
+
+    protected static ValueResolver resolverFor(ImmutableMap<Method, ValueResolver> resolvers, Method method) {
+        ValueResolver resolver = resolvers.get(method);
+        if (resolver == null)
+            throw new IllegalStateException("no resolver was built for " + method);
+        return resolver;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.proxy;
+
+import com.github.steveash.typedconfig.resolver.InstanceValueResolver;
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMap.Builder;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Builds proxies using java.lang.reflect.Proxy.  Every invocation goes through an invocation handler which looks
+ * up the resolver for the invoked method.  This works for any interface (public or not) and is the default
+ *
+ * @author Steve Ash
+ */
+public class JdkProxyStrategy implements ProxyStrategy {
+
+    private static final Method equalsMethod;
+    private static final Method hashMethod;
+    private static final Method toStringMethod;
+    private static final Method getIfaceMethod;
+    private static final Method getResolversMethod;
+
+    static {
+        try {
+            equalsMethod = Object.class.getDeclaredMethod("equals", Object.class);
+            hashMethod = Object.class.getDeclaredMethod("hashCode");
+            toStringMethod = Object.class.getDeclaredMethod("toString");
+            getIfaceMethod = ProxiedConfiguration.class.getDeclaredMethod("getInterfaceClass");
+            getResolversMethod = ProxiedConfiguration.class.getDeclaredMethod("getResolvers");
+        } catch (NoSuchMethodException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T makeProxy(final Class<T> interfaze, final ImmutableMap<Method, ValueResolver> resolvers,
+                           ValueResolver hashResolver, ValueResolver toStringResolver) {
+
+        Builder<Method, ValueResolver> builder = ImmutableMap.builder();
+        builder.putAll(resolvers);
+        builder.put(hashMethod, hashResolver);
+        builder.put(toStringMethod, toStringResolver);
+        builder.put(getIfaceMethod, new InstanceValueResolver(interfaze));
+        builder.put(getResolversMethod, new InstanceValueResolver(resolvers));
+        final ImmutableMap<Method, ValueResolver> allResolvers = builder.build();
+
+        InvocationHandler handler = new InvocationHandler() {
+
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+
+                ValueResolver valueResolver = allResolvers.get(method);
+                if (valueResolver != null) return valueResolver.resolve();
+                if (equalsMethod.equals(method))
+                    return ProxiedConfigurations.proxyEquals(interfaze, resolvers, args[0]);
+
+                throw new IllegalStateException("no method is known for " + method);
+            }
+        };
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{interfaze, ProxiedConfiguration.class}, handler);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.proxy;
+
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Uses the proxy class that the annotation processor generated at compile time for an @ConfigProxy interface when
+ * there is one, and the given strategy for every other interface.  The processor names the class for the interface
+ * {@code com.foo.Outer.Settings} {@code com.foo.TypedConfig_Outer_Settings}
+ * <p/>
+ * The lookup is remembered in a {@link ClassValue} on the interface so it doesn't pin the interface's class loader
+ *
+ * @author Steve Ash
+ */
+public class PrecompiledProxyStrategy implements ProxyStrategy {
+
+    static final String CLASS_PREFIX = "TypedConfig_";
+
+    private static final ClassValue<Optional<Constructor<?>>> constructors = new ClassValue<Optional<Constructor<?>>>() {
+        @Override
+        protected Optional<Constructor<?>> computeValue(Class<?> interfaze) {
+            return findConstructor(interfaze);
+        }
+    };
+
+    private final ProxyStrategy fallbackStrategy;
+
+    public PrecompiledProxyStrategy(ProxyStrategy fallbackStrategy) {
+        this.fallbackStrategy = fallbackStrategy;
+    }
+
+    @Override
+    public <T> T makeProxy(Class<T> interfaze, ImmutableMap<Method, ValueResolver> resolvers,
+                           ValueResolver hashResolver, ValueResolver toStringResolver) {
+
+        Optional<Constructor<?>> ctor = constructors.get(interfaze);
+        if (!ctor.isPresent())
+            return fallbackStrategy.makeProxy(interfaze, resolvers, hashResolver, toStringResolver);
+
+        try {
+            return interfaze.cast(ctor.get().newInstance(interfaze, resolvers, hashResolver, toStringResolver));
+        } catch (InvocationTargetException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (Exception e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    public ProxyStrategy getFallbackStrategy() {
+        return fallbackStrategy;
+    }
+
+    /**
+     * @return the binary name of the class that the annotation processor generates for the given interface
+     */
+    public static String generatedClassNameFor(Class<?> interfaze) {
+        StringBuilder simpleNames = new StringBuilder(interfaze.getSimpleName());
+        Class<?> outermost = interfaze;
+        while (outermost.getEnclosingClass() != null) {
+            outermost = outermost.getEnclosingClass();
+            simpleNames.insert(0, outermost.getSimpleName() + "_");
+        }
+        String outerName = outermost.getName();
+        int lastDot = outerName.lastIndexOf('.');
+        String packagePrefix = (lastDot < 0 ? "" : outerName.substring(0, lastDot + 1));
+        return packagePrefix + CLASS_PREFIX + simpleNames;
+    }
+
+    private static Optional<Constructor<?>> findConstructor(Class<?> interfaze) {
+        if (interfaze.getClassLoader() == null)
+            return Optional.absent();
+        try {
+            Class<?> generated = Class.forName(generatedClassNameFor(interfaze), true, interfaze.getClassLoader());
+            if (!interfaze.isAssignableFrom(generated) || !GeneratedProxy.class.isAssignableFrom(generated))
+                return Optional.absent();
+
+            return Optional.<Constructor<?>>of(generated.getConstructor(Class.class, ImmutableMap.class,
+                    ValueResolver.class, ValueResolver.class));
+        } catch (ClassNotFoundException e) {
+            return Optional.absent();
+        } catch (NoSuchMethodException e) {
+            return Optional.absent();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.proxy;
+
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
+import com.github.steveash.typedconfig.resolver.ResolvedValues;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.collect.ImmutableMap;
+
+import java.lang.reflect.Method;
+import java.util.Map.Entry;
+
+/**
+ * Equality semantics shared by all of the proxy strategies so that proxies built by different strategies
+ * still compare equal to each other
+ * @author Steve Ash
+ */
+final class ProxiedConfigurations {
+
+    private ProxiedConfigurations() { }
+
+    static boolean proxyEquals(Class<?> thisIface, ImmutableMap<Method, ValueResolver> thisResolvers,
+            Object that) {
+
+        if (!(that instanceof ProxiedConfiguration)) return false;
+        ProxiedConfiguration thatConfig = ((ProxiedConfiguration) that);
+
+        Class<?> thatIface = thatConfig.getInterfaceClass();
+        if (!thisIface.equals(thatIface)) return false;
+
+        ImmutableMap<Method, ValueResolver> thatResolvers = thatConfig.getResolvers();
+        if (thisResolvers.size() != thatResolvers.size())
+            throw new IllegalStateException("not sure how the same iface can have different resolver map");
+
+        for (Entry<Method, ValueResolver> thisEntry : thisResolvers.entrySet()) {
+            Object thisValue = ResolvedValues.materialize(thisEntry.getValue().resolve());
+            Object thatValue = ResolvedValues.materialize(thatResolvers.get(thisEntry.getKey()).resolve());
+            if (!thisValue.equals(thatValue)) return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.proxy;
+
+import com.github.steveash.typedconfig.resolver.PrimitiveValueResolvers;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Primitives;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the bytecode for a subclass of {@link GeneratedProxy} that implements a proxy interface.  Each method
+ * that has a resolver gets its own final field and the method body just calls resolve() on that field and casts
+ * (or unboxes) the result to the return type of the method.  Methods returning int, long, double or boolean go
+ * through {@link PrimitiveValueResolvers} instead so that specialized resolvers never box the value
+ *
+ * @author Steve Ash
+ */
+final class ProxyClassGenerator implements Opcodes {
+
+    private static final String BASE_NAME = Type.getInternalName(GeneratedProxy.class);
+    private static final String RESOLVER_NAME = Type.getInternalName(ValueResolver.class);
+    private static final String RESOLVER_DESC = Type.getDescriptor(ValueResolver.class);
+    private static final String PRIMITIVES_NAME = Type.getInternalName(PrimitiveValueResolvers.class);
+    private static final String BASE_CTOR_DESC = "(" + Type.getDescriptor(Class.class) +
+            Type.getDescriptor(ImmutableMap.class) + RESOLVER_DESC + RESOLVER_DESC + ")V";
+    static final String CTOR_DESC = "(" + Type.getDescriptor(Class.class) + Type.getDescriptor(ImmutableMap.class) +
+            RESOLVER_DESC + RESOLVER_DESC + "[" + RESOLVER_DESC + ")V";
+
+    private ProxyClassGenerator() { }
+
+    /**
+     * @param className the binary name of the class to generate
+     * @param interfaze the proxy interface to implement
+     * @param resolvedMethods the methods that have resolvers, in the order that the resolvers will be passed to the
+     * generated constructor
+     * @return the class file bytes
+     */
+    static byte[] generate(String className, Class<?> interfaze, List<Method> resolvedMethods) {
+        String internalName = className.replace('.', '/');
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null, BASE_NAME,
+                new String[]{Type.getInternalName(interfaze)});
+
+        for (int i = 0; i < resolvedMethods.size(); i++) {
+            cw.visitField(ACC_PRIVATE | ACC_FINAL, fieldName(i), RESOLVER_DESC, null, null).visitEnd();
+        }
+        writeConstructor(cw, internalName, resolvedMethods.size());
+
+        Set<String> written = Sets.newHashSet();
+        for (Method method : interfaze.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method))
+                continue;
+            String descriptor = Type.getMethodDescriptor(method);
+            if (!written.add(method.getName() + descriptor))
+                continue;
+
+            int index = resolvedMethods.indexOf(method);
+            if (index >= 0) {
+                writeResolvedMethod(cw, internalName, method, descriptor, index);
+            } else {
+                writeUnknownMethod(cw, method, descriptor);
+            }
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void writeConstructor(ClassWriter cw, String internalName, int fieldCount) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", CTOR_DESC, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitVarInsn(ALOAD, 4);
+        mv.visitMethodInsn(INVOKESPECIAL, BASE_NAME, "<init>", BASE_CTOR_DESC, false);
+        for (int i = 0; i < fieldCount; i++) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 5);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(AALOAD);
+            mv.visitFieldInsn(PUTFIELD, internalName, fieldName(i), RESOLVER_DESC);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void writeResolvedMethod(ClassWriter cw, String internalName, Method method, String descriptor,
+                                            int index) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, method.getName(), descriptor, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, internalName, fieldName(index), RESOLVER_DESC);
+
+        Type returnType = Type.getReturnType(method);
+        String primitiveResolve = primitiveResolveMethod(returnType);
+        if (primitiveResolve != null) {
+            mv.visitMethodInsn(INVOKESTATIC, PRIMITIVES_NAME, primitiveResolve,
+                    "(" + RESOLVER_DESC + ")" + returnType.getDescriptor(), false);
+            mv.visitInsn(returnType.getOpcode(IRETURN));
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            return;
+        }
+
+        mv.visitMethodInsn(INVOKEINTERFACE, RESOLVER_NAME, "resolve", "()Ljava/lang/Object;", true);
+        switch (returnType.getSort()) {
+            case Type.VOID:
+                mv.visitInsn(POP);
+                mv.visitInsn(RETURN);
+                break;
+            case Type.OBJECT:
+            case Type.ARRAY:
+                if (!method.getReturnType().equals(Object.class))
+                    mv.visitTypeInsn(CHECKCAST, returnType.getInternalName());
+                mv.visitInsn(ARETURN);
+                break;
+            default:
+                writeUnbox(mv, method.getReturnType());
+                mv.visitInsn(returnType.getOpcode(IRETURN));
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static String primitiveResolveMethod(Type returnType) {
+        switch (returnType.getSort()) {
+            case Type.INT:
+                return "resolveInt";
+            case Type.LONG:
+                return "resolveLong";
+            case Type.DOUBLE:
+                return "resolveDouble";
+            case Type.BOOLEAN:
+                return "resolveBoolean";
+            default:
+                return null;
+        }
+    }
+
+    private static void writeUnbox(MethodVisitor mv, Class<?> primitiveClass) {
+        // cast to the exact wrapper (not Number) so that a mismatched value fails the same way the jdk proxy does
+        String wrapper = Type.getInternalName(Primitives.wrap(primitiveClass));
+        mv.visitTypeInsn(CHECKCAST, wrapper);
+        mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, primitiveClass.getName() + "Value",
+                "()" + Type.getDescriptor(primitiveClass), false);
+    }
+
+    private static void writeUnknownMethod(ClassWriter cw, Method method, String descriptor) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, method.getName(), descriptor, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitLdcInsn(method.getName());
+        mv.visitMethodInsn(INVOKEVIRTUAL, BASE_NAME, "noResolverFor",
+                "(Ljava/lang/String;)Ljava/lang/RuntimeException;", false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    // the object methods are implemented by the base class using the hash and toString resolvers
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static String fieldName(int index) {
+        return "resolver" + index;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.proxy;
+
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.collect.ImmutableMap;
+
+import java.lang.reflect.Method;
+
+/**
+ * The strategy for producing the instance that implements a proxy interface once all of its value resolvers
+ * have been built.  Implementations must dispatch each interface method to its resolver and must also implement
+ * {@link com.github.steveash.typedconfig.resolver.ProxiedConfiguration} along with equals, hashCode, and toString
+ * @author Steve Ash
+ */
+public interface ProxyStrategy {
+
+    /**
+     * @param interfaze the proxy interface to implement
+     * @param resolvers the resolver for every declared method on the interface
+     * @param hashResolver resolver for the hashCode value of the proxy
+     * @param toStringResolver resolver for the toString value of the proxy
+     * @return the proxy instance
+     */
+    <T> T makeProxy(Class<T> interfaze, ImmutableMap<Method, ValueResolver> resolvers, ValueResolver hashResolver,
+                    ValueResolver toStringResolver);
+}
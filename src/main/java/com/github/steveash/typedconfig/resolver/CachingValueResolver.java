@@ -16,22 +16,45 @@
 
 package com.github.steveash.typedconfig.resolver;
 
+import com.github.steveash.typedconfig.caching.Invalidatable;
+import com.github.steveash.typedconfig.caching.RecomputeMode;
 import com.google.common.eventbus.Subscribe;
 import org.apache.commons.configuration.event.ConfigurationEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * @author Steve Ash
  */
-public class CachingValueResolver extends ForwardingValueResolver {
+public class CachingValueResolver extends ForwardingValueResolver implements Invalidatable {
     private static final Logger log = LoggerFactory.getLogger(CachingValueResolver.class);
 
+    private static final byte KIND_OTHER = 0;
+    private static final byte KIND_INT = 1;
+    private static final byte KIND_LONG = 2;
+    private static final byte KIND_DOUBLE = 3;
+    private static final byte KIND_BOOLEAN = 4;
+
     private Object cachedValue = null; // visibility will piggy-back on volatile flag
+    // the unboxed cachedValue (doubles as raw bits); volatile only so that a racing recompute cant tear the long
+    private volatile long cachedPrimitive = 0;
+    private byte cachedKind = KIND_OTHER;
     private volatile boolean isValueInitialized = false; // need separate flag as null is valid value
+    private volatile boolean hasPreviousValue = false; // stays set after invalidation; cachedValue is then stale
+    private volatile int invalidationCount = 0; // only compared for changes so a lost increment doesn't matter
+
+    private final RecomputeMode recomputeMode;
+    private final ReentrantLock recomputeLock = new ReentrantLock();
 
     public CachingValueResolver(ValueResolver delegate) {
+        this(delegate, RecomputeMode.UNSYNCHRONIZED);
+    }
+
+    public CachingValueResolver(ValueResolver delegate, RecomputeMode recomputeMode) {
         super(delegate);
+        this.recomputeMode = recomputeMode;
     }
 
     @Override
@@ -39,14 +62,103 @@ public class CachingValueResolver extends ForwardingValueResolver {
         if (isValueInitialized) // volatile read first
             return cachedValue;
 
-        cachedValue = super.resolve();
-        isValueInitialized = true; // volatile write last
+        switch (recomputeMode) {
+            case UNSYNCHRONIZED:
+                return compute();
+
+            case STALE_WHILE_REVALIDATE:
+                if (hasPreviousValue && !recomputeLock.tryLock())
+                    return cachedValue;
+                return computeHoldingLock(recomputeLock.isHeldByCurrentThread());
+
+            case SINGLE_FLIGHT:
+                return computeHoldingLock(false);
+
+            default:
+                throw new IllegalStateException("unknown recompute mode " + recomputeMode);
+        }
+    }
+
+    private Object computeHoldingLock(boolean alreadyLocked) {
+        if (!alreadyLocked)
+            recomputeLock.lock();
+        try {
+            if (isValueInitialized) // someone else computed it while we waited
+                return cachedValue;
+            return compute();
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    private Object compute() {
+        int invalidationsBefore = invalidationCount;
+        Object value = super.resolve();
+        cachedValue = value;
+        cacheAsPrimitive(value);
+        hasPreviousValue = true;
+        // if we were invalidated while computing then this value might already be stale
+        if (invalidationsBefore == invalidationCount)
+            isValueInitialized = true; // volatile write last
 
-        return cachedValue;
+        return value;
     }
 
+    @Override
+    public int resolveInt() {
+        if (isValueInitialized && cachedKind == KIND_INT)
+            return (int) cachedPrimitive;
+        return (Integer) resolve();
+    }
+
+    @Override
+    public long resolveLong() {
+        if (isValueInitialized && cachedKind == KIND_LONG)
+            return cachedPrimitive;
+        return (Long) resolve();
+    }
+
+    @Override
+    public double resolveDouble() {
+        if (isValueInitialized && cachedKind == KIND_DOUBLE)
+            return Double.longBitsToDouble(cachedPrimitive);
+        return (Double) resolve();
+    }
+
+    @Override
+    public boolean resolveBoolean() {
+        if (isValueInitialized && cachedKind == KIND_BOOLEAN)
+            return cachedPrimitive != 0;
+        return (Boolean) resolve();
+    }
+
+    private void cacheAsPrimitive(Object value) {
+        if (value instanceof Integer) {
+            cachedPrimitive = (Integer) value;
+            cachedKind = KIND_INT;
+        } else if (value instanceof Long) {
+            cachedPrimitive = (Long) value;
+            cachedKind = KIND_LONG;
+        } else if (value instanceof Double) {
+            cachedPrimitive = Double.doubleToRawLongBits((Double) value);
+            cachedKind = KIND_DOUBLE;
+        } else if (value instanceof Boolean) {
+            cachedPrimitive = ((Boolean) value) ? 1 : 0;
+            cachedKind = KIND_BOOLEAN;
+        } else {
+            cachedKind = KIND_OTHER;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        invalidationCount += 1;
+        isValueInitialized = false;
+    }
+
+    // for caches registered on the context's event bus rather than in the invalidation index
     @Subscribe
     public void configurationChanged(ConfigurationEvent event) {
-        isValueInitialized = false;
+        invalidate();
     }
 }
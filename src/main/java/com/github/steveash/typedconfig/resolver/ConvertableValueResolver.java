@@ -16,10 +16,18 @@
 
 package com.github.steveash.typedconfig.resolver;
 
+import com.google.common.collect.MapMaker;
 import org.apache.commons.beanutils.ConvertUtilsBean;
 
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Base class that provides support for default value conversion for anything that supports it
+ * <p/>
+ * Resolvers for types that are expensive to convert can memoize their conversions.  Configurations hand back the
+ * same string instance for a value until it changes, so #convertRaw only has to compare the raw string to the last
+ * one by reference to skip the conversion.  Default values and container elements (#convertDefaultValue) are
+ * memoized by string identity too; those entries are weakly held and go away with the strings
  * @author Steve Ash
  */
 public abstract class ConvertableValueResolver implements ValueResolver {
@@ -27,20 +35,81 @@ public abstract class ConvertableValueResolver implements ValueResolver {
     private final Class<?> targetClazz;
     private final String key;
     private final ConvertUtilsBean converter;
+    private final ConcurrentMap<String, Object> conversions;
+    private volatile Conversion lastConversion;
 
     public ConvertableValueResolver(Class<?> targetClazz, String key) {
+        this(targetClazz, key, false);
+    }
+
+    /**
+     * @param targetClazz
+     * @param key
+     * @param memoizeConversions true to remember conversions by raw string instance
+     */
+    public ConvertableValueResolver(Class<?> targetClazz, String key, boolean memoizeConversions) {
         this.targetClazz = targetClazz;
         this.key = key;
         this.converter = new ConvertUtilsBean();
+        // weak keys compare by identity which is exactly what we want here
+        this.conversions = (memoizeConversions ? new MapMaker().weakKeys().<String, Object>makeMap() : null);
     }
 
     @Override
     public Object convertDefaultValue(String defaultValue) {
-        return converter.convert(defaultValue, targetClazz);
+        if (conversions == null || defaultValue == null)
+            return convert(defaultValue);
+
+        Object converted = conversions.get(defaultValue);
+        if (converted == null) {
+            converted = convert(defaultValue);
+            if (converted != null)
+                conversions.put(defaultValue, converted);
+        }
+        return converted;
+    }
+
+    /**
+     * Converts a raw value read from the configuration.  If memoizing and it's the same string instance as last
+     * time then the last result is returned without converting
+     * @param raw
+     * @return
+     */
+    protected Object convertRaw(String raw) {
+        if (raw == null)
+            return null;
+        if (conversions == null)
+            return convert(raw);
+
+        Conversion last = lastConversion;
+        if (last != null && last.raw == raw)
+            return last.converted;
+
+        Object converted = convert(raw);
+        lastConversion = new Conversion(raw, converted);
+        return converted;
+    }
+
+    /**
+     * @param raw
+     * @return the raw string converted to the target type; by default with commons beanutils
+     */
+    protected Object convert(String raw) {
+        return converter.convert(raw, targetClazz);
     }
 
     @Override
     public String configurationKeyToLookup() {
         return key;
     }
+
+    private static final class Conversion {
+        private final String raw;
+        private final Object converted;
+
+        private Conversion(String raw, Object converted) {
+            this.raw = raw;
+            this.converted = converted;
+        }
+    }
 }
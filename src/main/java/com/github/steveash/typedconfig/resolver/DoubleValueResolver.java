@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+/**
+ * A resolver that can produce its value as a primitive double without boxing it.  Proxy methods that return double
+ * are dispatched through {@link PrimitiveValueResolvers#resolveDouble(ValueResolver)} which uses this when available
+ *
+ * @author Steve Ash
+ */
+public interface DoubleValueResolver extends ValueResolver {
+
+    /**
+     * Same contract as {@link #resolve()} but unboxed; throws a NullPointerException if the value is null just as
+     * unboxing the result of resolve would
+     * @return the current configuration value
+     */
+    double resolveDouble();
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+import com.google.common.base.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caches the value of the delegate for a fixed time after it was read.  Once that time is up either the next
+ * access reads the value again (expire after write), or, if an executor is given, the old value keeps being
+ * returned while a single refresh runs on the executor (refresh after write).  If a refresh fails the old value is
+ * kept and treated as if it was just written, so a failing source is retried once per ttl instead of on every read
+ *
+ * @author Steve Ash
+ */
+public class ExpiringCachingValueResolver extends ForwardingValueResolver {
+    private static final Logger log = LoggerFactory.getLogger(ExpiringCachingValueResolver.class);
+
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private final Executor refreshExecutor;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile Written cached = null;
+
+    /**
+     * @param delegate
+     * @param ttlNanos how long a value is good for
+     * @param ticker source of time
+     * @param refreshExecutor runs refreshes of expired values; if null expired values are read again synchronously
+     */
+    public ExpiringCachingValueResolver(ValueResolver delegate, long ttlNanos, Ticker ticker,
+                                        Executor refreshExecutor) {
+        super(delegate);
+        this.ttlNanos = ttlNanos;
+        this.ticker = ticker;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Object resolve() {
+        Written snapshot = cached;
+        if (snapshot == null)
+            return compute();
+        if (ticker.read() - snapshot.writeNanos < ttlNanos)
+            return snapshot.value;
+        if (refreshExecutor == null)
+            return compute();
+
+        if (refreshing.compareAndSet(false, true)) {
+            final Written stale = snapshot;
+            try {
+                refreshExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            compute();
+                        } catch (RuntimeException e) {
+                            log.warn("Couldn't refresh the cached value for " + configurationKeyToLookup() +
+                                    "; keeping the previous value", e);
+                            if (cached == stale)
+                                cached = new Written(stale.value, ticker.read());
+                        } finally {
+                            refreshing.set(false);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+                return compute();
+            }
+        }
+        return snapshot.value;
+    }
+
+    private Object compute() {
+        long now = ticker.read();
+        Object value = super.resolve();
+        cached = new Written(value, now);
+        return value;
+    }
+
+    private static final class Written {
+        private final Object value;
+        private final long writeNanos;
+
+        private Written(Object value, long writeNanos) {
+            this.value = value;
+            this.writeNanos = writeNanos;
+        }
+    }
+}
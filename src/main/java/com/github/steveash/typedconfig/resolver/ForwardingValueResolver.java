@@ -17,9 +17,14 @@
 package com.github.steveash.typedconfig.resolver;
 
 /**
+ * Base class for the decorators.  The primitive variants unbox whatever this decorator resolves, so decorators
+ * that change the value only need to override resolve(); decorators that can produce a primitive without boxing
+ * (like caching) override them as well
+ *
  * @author Steve Ash
  */
-public abstract class ForwardingValueResolver implements ValueResolver {
+public abstract class ForwardingValueResolver implements ValueResolver, IntValueResolver, LongValueResolver,
+        DoubleValueResolver, BooleanValueResolver {
 
     protected final ValueResolver delegate;
 
@@ -32,6 +37,26 @@ public abstract class ForwardingValueResolver implements ValueResolver {
         return delegate.resolve();
     }
 
+    @Override
+    public int resolveInt() {
+        return (Integer) resolve();
+    }
+
+    @Override
+    public long resolveLong() {
+        return (Long) resolve();
+    }
+
+    @Override
+    public double resolveDouble() {
+        return (Double) resolve();
+    }
+
+    @Override
+    public boolean resolveBoolean() {
+        return (Boolean) resolve();
+    }
+
     @Override
     public Object convertDefaultValue(String defaultValue) {
         return delegate.convertDefaultValue(defaultValue);
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+import com.github.steveash.typedconfig.defaultvalue.DefaultGivenValueResolverDecorator;
+import com.github.steveash.typedconfig.defaultvalue.DefaultLookupValueResolverDecorator;
+import com.github.steveash.typedconfig.defaultvalue.RequiredValueResolverDecorator;
+import com.github.steveash.typedconfig.exception.RequiredConfigurationKeyNotPresentException;
+import com.github.steveash.typedconfig.validation.ValidatorResolverDecorator;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+
+import javax.validation.Validator;
+
+/**
+ * One resolver that does the work of the default lookup, default value, required and validation decorators in a
+ * single method body instead of a stack of forwarding resolvers.  {@link #fuse(ValueResolver)} only replaces
+ * the outermost run of those decorators, in the order that the default and validation strategies build them;
+ * whatever is below that run (including decorators from custom strategies) becomes the delegate
+ *
+ * @author Steve Ash
+ */
+public class FusedValueResolver extends ForwardingValueResolver {
+
+    private final ValueResolver defaultLookupResolver;
+    private final Object defaultValue;
+    private final HierarchicalConfiguration requiredConfig;
+    private final Validator validator;
+    private final Class validatedClass;
+    private final String validatedProperty;
+
+    private FusedValueResolver(ValueResolver delegate, ValueResolver defaultLookupResolver, Object defaultValue,
+                               HierarchicalConfiguration requiredConfig, ValidatorResolverDecorator validation) {
+        super(delegate);
+        this.defaultLookupResolver = defaultLookupResolver;
+        this.defaultValue = defaultValue;
+        this.requiredConfig = requiredConfig;
+        this.validator = (validation != null ? validation.getValidator() : null);
+        this.validatedClass = (validation != null ? validation.getValidatedClass() : null);
+        this.validatedProperty = (validation != null ? validation.getPropertyName() : null);
+    }
+
+    /**
+     * @return a fused resolver equivalent to the given chain or the chain itself if it can't be fused
+     */
+    public static ValueResolver fuse(ValueResolver resolver) {
+        ValueResolver next = resolver;
+        ValidatorResolverDecorator validation = null;
+        if (next.getClass() == ValidatorResolverDecorator.class) {
+            validation = (ValidatorResolverDecorator) next;
+            next = validation.delegate;
+        }
+        HierarchicalConfiguration requiredConfig = null;
+        if (next.getClass() == RequiredValueResolverDecorator.class) {
+            requiredConfig = ((RequiredValueResolverDecorator) next).getConfig();
+            next = ((RequiredValueResolverDecorator) next).delegate;
+        }
+        Object defaultValue = null;
+        if (next.getClass() == DefaultGivenValueResolverDecorator.class) {
+            defaultValue = ((DefaultGivenValueResolverDecorator) next).getDefaultValue();
+            next = ((DefaultGivenValueResolverDecorator) next).delegate;
+        }
+        ValueResolver defaultLookupResolver = null;
+        if (next.getClass() == DefaultLookupValueResolverDecorator.class) {
+            defaultLookupResolver = ((DefaultLookupValueResolverDecorator) next).getDefaultResolver();
+            next = ((DefaultLookupValueResolverDecorator) next).delegate;
+        }
+        if (next == resolver)
+            return resolver; // nothing to fuse
+
+        return new FusedValueResolver(next, defaultLookupResolver, defaultValue, requiredConfig, validation);
+    }
+
+    @Override
+    public Object resolve() {
+        Object o = delegate.resolve();
+        if (o == null) {
+            if (defaultLookupResolver != null)
+                o = defaultLookupResolver.resolve();
+            if (o == null) {
+                o = defaultValue;
+                if (o == null && requiredConfig != null)
+                    throw RequiredConfigurationKeyNotPresentException.makeForMissingKey(
+                            delegate.configurationKeyToLookup(), requiredConfig);
+            }
+        }
+        if (validator != null)
+            ValidatorResolverDecorator.validate(validator, validatedClass, validatedProperty,
+                    delegate.configurationKeyToLookup(), o);
+        return o;
+    }
+}
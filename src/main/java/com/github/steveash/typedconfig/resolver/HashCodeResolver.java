@@ -39,7 +39,7 @@ public class HashCodeResolver implements ValueResolver {
     public Object resolve() {
         HashCodeBuilder builder = new HashCodeBuilder(2711, 2789);
         for (ValueResolver resolver : proxyMethodResolvers.values()) {
-            builder.append(resolver.resolve());
+            builder.append(ResolvedValues.materialize(resolver.resolve()));
         }
         builder.append(interfaze.getCanonicalName());
         return builder.build();
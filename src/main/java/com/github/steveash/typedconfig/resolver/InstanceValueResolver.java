@@ -21,11 +21,11 @@ package com.github.steveash.typedconfig.resolver;
  * with the invocation handler in the proxy value resolver
  * @author Steve Ash
  */
-class InstanceValueResolver implements ValueResolver {
+public class InstanceValueResolver implements ValueResolver {
 
     private final Object instance;
 
-    InstanceValueResolver(Object instance) {
+    public InstanceValueResolver(Object instance) {
         this.instance = instance;
     }
 
@@ -17,22 +17,34 @@
 package com.github.steveash.typedconfig.resolver;
 
 import java.lang.reflect.Method;
-
-import javax.annotation.Nonnull;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.configuration.HierarchicalConfiguration;
 import org.apache.commons.lang3.StringUtils;
 
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.Option;
+import com.github.steveash.typedconfig.caching.Invalidatable;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * Implements the "lookup" behavior: with this behavior the value in the config is not the "real" value -- its a
  * "lookup key" which will be subsequently looked up in the config and that resulting "real" value will be returned
+ * <p/>
+ * The resolvers for the last few lookup keys are kept in a small LRU cache so that a lookup key that flips between
+ * a few targets doesn't rebuild a resolver each time.  The cache is cleared when the configuration changes
 * @author Steve Ash
 */
-public class LookupValueResolver implements ValueResolver {
-    private volatile String lastLookupKey = null;
+public class LookupValueResolver implements ValueResolver, Invalidatable {
+
+    public static final int DEFAULT_MAX_CACHED_LOOKUPS = 16;
+
+    private final Cache<String, ValueResolver> resolversByLookupKey;
     private volatile ValueResolver lastResolver = null;
 
     private final HierarchicalConfiguration config;
@@ -43,6 +55,11 @@ public class LookupValueResolver implements ValueResolver {
 
     public LookupValueResolver(HierarchicalConfiguration config, ConfigBinding originalBinding, Class<?> interfaze,
             Method method, ValueResolverForBindingFactory resolverFactory) {
+        this(config, originalBinding, interfaze, method, resolverFactory, DEFAULT_MAX_CACHED_LOOKUPS);
+    }
+
+    public LookupValueResolver(HierarchicalConfiguration config, ConfigBinding originalBinding, Class<?> interfaze,
+            Method method, ValueResolverForBindingFactory resolverFactory, int maxCachedLookups) {
 
         if (!originalBinding.containsOption(Option.LOOKUP_RESULT)) {
             throw new IllegalArgumentException("lookup resolver is only for lookup bindings");
@@ -53,42 +70,67 @@ public class LookupValueResolver implements ValueResolver {
         this.originalBinding = originalBinding.withoutOption(Option.LOOKUP_RESULT);
         this.interfaze = interfaze;
         this.method = method;
+        this.resolversByLookupKey = CacheBuilder.newBuilder()
+                .concurrencyLevel(1) // a single segment so that the size bound is true LRU; writes are rare
+                .maximumSize(maxCachedLookups)
+                .recordStats()
+                .build();
     }
 
     @Override
     public Object resolve() {
         String currentLookupKey = config.getString(originalBinding.getConfigKeyToLookup(), null);
         if (StringUtils.isBlank(currentLookupKey)) {
-            return returnNoLookup();
+            lastResolver = null;
+            return null;
         }
-        if (makeNewResolver(currentLookupKey)) {
+        ValueResolver resolver = resolverFor(currentLookupKey);
+        lastResolver = resolver;
+        return resolver.resolve();
+    }
 
-            ConfigBinding newBinding = originalBinding.withKey(currentLookupKey);
-            lastLookupKey = currentLookupKey;
-            lastResolver = resolverFactory.makeResolverForBinding(newBinding, interfaze, method, config);
+    private ValueResolver resolverFor(final String lookupKey) {
+        try {
+            return resolversByLookupKey.get(lookupKey, new Callable<ValueResolver>() {
+                @Override
+                public ValueResolver call() throws Exception {
+                    ConfigBinding newBinding = originalBinding.withKey(lookupKey);
+                    return resolverFactory.makeResolverForBinding(newBinding, interfaze, method, config);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
         }
-        return lastResolver.resolve();
     }
 
-    private Object returnNoLookup() {
-        lastLookupKey = null;
-        lastResolver = null;
-        return null;
+    /**
+     * Drops all of the cached resolvers; called when the configuration changes
+     */
+    @Override
+    public void invalidate() {
+        resolversByLookupKey.invalidateAll();
     }
 
-    private boolean makeNewResolver(@Nonnull String currentLookupKey) {
-        return (lastResolver == null || lastLookupKey == null || !lastLookupKey.equals(currentLookupKey));
+    /**
+     * @return the hit, miss, and eviction statistics of the resolvers cached per lookup key
+     */
+    public CacheStats getCacheStats() {
+        return resolversByLookupKey.stats();
     }
 
     @Override
     public Object convertDefaultValue(String defaultValue) {
-        if (lastResolver == null) throw new IllegalStateException("can't call this until after resolve");
-        return lastResolver.convertDefaultValue(defaultValue);
+        ValueResolver resolver = lastResolver;
+        if (resolver == null) throw new IllegalStateException("can't call this until after resolve");
+        return resolver.convertDefaultValue(defaultValue);
     }
 
     @Override
     public String configurationKeyToLookup() {
-        if (lastResolver == null) throw new IllegalStateException("can't call this until after resolve");
-        return lastResolver.configurationKeyToLookup();
+        ValueResolver resolver = lastResolver;
+        if (resolver == null) throw new IllegalStateException("can't call this until after resolve");
+        return resolver.configurationKeyToLookup();
     }
 }
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+/**
+ * Marker for factories whose {@link #canResolveFor(com.github.steveash.typedconfig.ConfigBinding)} looks at more
+ * than the data type and options of the binding (e.g. its key or annotations).  The registry remembers which
+ * factory it picked for each data type and options; factories marked with this are asked again on every lookup
+ *
+ * @author Steve Ash
+ */
+public interface NonMemoizableValueResolverFactory extends ValueResolverFactory {
+}
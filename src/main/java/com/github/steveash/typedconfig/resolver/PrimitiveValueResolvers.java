@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+/**
+ * Static helpers to resolve primitive values from any resolver.  If the resolver is specialized for the
+ * primitive then the value is read without boxing, otherwise the result of resolve() is unboxed.  Generated
+ * proxies call these directly for methods that return primitives
+ *
+ * @author Steve Ash
+ */
+public final class PrimitiveValueResolvers {
+
+    private PrimitiveValueResolvers() { }
+
+    public static int resolveInt(ValueResolver resolver) {
+        if (resolver instanceof IntValueResolver)
+            return ((IntValueResolver) resolver).resolveInt();
+        return (Integer) resolver.resolve();
+    }
+
+    public static long resolveLong(ValueResolver resolver) {
+        if (resolver instanceof LongValueResolver)
+            return ((LongValueResolver) resolver).resolveLong();
+        return (Long) resolver.resolve();
+    }
+
+    public static double resolveDouble(ValueResolver resolver) {
+        if (resolver instanceof DoubleValueResolver)
+            return ((DoubleValueResolver) resolver).resolveDouble();
+        return (Double) resolver.resolve();
+    }
+
+    public static boolean resolveBoolean(ValueResolver resolver) {
+        if (resolver instanceof BooleanValueResolver)
+            return ((BooleanValueResolver) resolver).resolveBoolean();
+        return (Boolean) resolver.resolve();
+    }
+}
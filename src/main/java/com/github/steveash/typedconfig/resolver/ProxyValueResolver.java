@@ -16,8 +16,8 @@
 
 package com.github.steveash.typedconfig.resolver;
 
-import com.github.steveash.typedconfig.Option;
-import com.google.common.base.Throwables;
+import com.github.steveash.typedconfig.BindingPlan;
+import com.github.steveash.typedconfig.BindingPlan.MethodPlan;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.reflect.TypeToken;
@@ -26,10 +26,7 @@ import org.apache.commons.configuration.HierarchicalConfiguration;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 
-import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
-import java.util.Map.Entry;
 
 /**
  * Resolves a proxy for a given interface type
@@ -38,6 +35,8 @@ import java.util.Map.Entry;
  */
 public class ProxyValueResolver implements ValueResolver, ValueResolverForBindingFactory {
 
+    private static final ConfigBinding lookupBinding = ConfigBinding.makeShimForKey("$LOOKUP$");
+
     private final ConfigBinding parentBinding;
     private final HierarchicalConfiguration config;
     private final ConfigFactoryContext context;
@@ -64,121 +63,66 @@ public class ProxyValueResolver implements ValueResolver, ValueResolverForBindin
     }
 
     public <T> T make(Class<T> interfaze, HierarchicalConfiguration configuration) {
-        try {
-            return tryToMake(interfaze, configuration);
-        } catch (NoSuchMethodException e) {
-            throw Throwables.propagate(e);
-        }
-    }
-
-    private <T> T tryToMake(Class<T> interfaze, HierarchicalConfiguration configuration) throws NoSuchMethodException {
+        BindingPlan plan = context.getBindingPlanFor(interfaze, configuration);
         Builder<Method, ValueResolver> builder = ImmutableMap.builder();
-        for (Method method : interfaze.getDeclaredMethods()) {
-            builder.put(method, makeResolverForMethod(interfaze, method, configuration));
+        for (MethodPlan methodPlan : plan.getMethodPlans()) {
+            builder.put(methodPlan.getMethod(), makeResolverForMethod(interfaze, methodPlan, configuration));
         }
-        return makeProxyForResolvers(interfaze, builder.build());
+        return makeProxyForResolvers(interfaze, builder.build(), configuration);
     }
 
-    private ValueResolver makeResolverForMethod(Class<?> interfaze, Method method, HierarchicalConfiguration config) {
-
-        ConfigBinding newMethodBinding = context.getBindingFor(interfaze, method, config);
-        if (newMethodBinding.getOptions().contains(Option.LOOKUP_RESULT)) {
-            return new LookupValueResolver(config, newMethodBinding, interfaze, method, this);
+    private ValueResolver makeResolverForMethod(Class<?> interfaze, MethodPlan methodPlan,
+                                                HierarchicalConfiguration config) {
+        if (methodPlan.isLookup()) {
+            LookupValueResolver lookupResolver = new LookupValueResolver(config, methodPlan.getBinding(), interfaze,
+                    methodPlan.getMethod(), this);
+            // the looked up key can be anywhere in this config so any change under it clears the lookup cache
+            context.getInvalidationIndex().register(lookupResolver, lookupBinding, config);
+            return lookupResolver;
         }
 
-        return makeResolverForBinding(newMethodBinding, interfaze, method, config);
+        ValueResolver resolver = context.makeResolverForBinding(config, methodPlan.getBinding(), parentBinding,
+                methodPlan.getFactory());
+        return decorate(resolver, methodPlan.getBinding(), interfaze, methodPlan.getMethod(), config);
     }
 
     public ValueResolver makeResolverForBinding(ConfigBinding binding, Class<?> interfaze, Method method,
             HierarchicalConfiguration config) {
         ValueResolver resolver = context.makeResolverForBinding(config, binding, parentBinding);
+        return decorate(resolver, binding, interfaze, method, config);
+    }
 
+    private ValueResolver decorate(ValueResolver resolver, ConfigBinding binding, Class<?> interfaze, Method method,
+                                   HierarchicalConfiguration config) {
+        boolean cacheable = !(resolver instanceof UncacheableValueResolver);
         resolver = context.getDefaultStrategy().decorateForDefaults(
                 resolver, config, binding, context, interfaze, method);
         resolver = context.getValidationStrategy().decorateForValidation(resolver, interfaze, method);
-        resolver = context.getCacheStrategy().decorateForCaching(resolver, binding, context);
+        resolver = FusedValueResolver.fuse(resolver);
+        if (cacheable)
+            resolver = context.getCacheStrategy().decorateForCaching(resolver, binding, config, context);
 
         return resolver;
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> T makeProxyForResolvers(final Class<?> interfaze,
-            final ImmutableMap<Method, ValueResolver> propertyResolvers) throws NoSuchMethodException {
-
-        final ImmutableMap<Method, ValueResolver> allResolvers = addInternalResolvers(interfaze,
-                propertyResolvers);
-        final Method equalsMethod = Object.class.getDeclaredMethod("equals", Object.class);
-
-        InvocationHandler handler = new InvocationHandler() {
-
-            @Override
-            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
-
-                ValueResolver valueResolver = allResolvers.get(method);
-                if (valueResolver != null) return valueResolver.resolve();
-                if (equalsMethod.equals(method)) return proxyEquals(interfaze, propertyResolvers, args[0]);
-
-                throw new IllegalStateException("no method is known for " + method);
-            }
-        };
-        return (T) Proxy.newProxyInstance(getClass().getClassLoader(),
-                new Class<?>[]{interfaze, ProxiedConfiguration.class}, handler);
-    }
-
-    private ImmutableMap<Method, ValueResolver> addInternalResolvers(Class<?> interfaze,
-            ImmutableMap<Method, ValueResolver> resolverMap) throws NoSuchMethodException {
-
-        ValueResolver hashResolver = makeHashResolver(interfaze, resolverMap);
-        ValueResolver toStringResolver = makeToStringResolver(interfaze, resolverMap);
-        ValueResolver getIfaceResolver = new InstanceValueResolver(interfaze);
-        ValueResolver getResolversResolver = new InstanceValueResolver(resolverMap);
-
-        Method hashMethod = Object.class.getDeclaredMethod("hashCode");
-        Method toStringMethod = Object.class.getDeclaredMethod("toString");
-        Method getIfaceMethod = ProxiedConfiguration.class.getDeclaredMethod("getInterfaceClass");
-        Method getResolversMethod = ProxiedConfiguration.class.getDeclaredMethod("getResolvers");
-
-        Builder<Method, ValueResolver> builder = ImmutableMap.builder();
-        builder.putAll(resolverMap);
-        builder.put(hashMethod, hashResolver);
-        builder.put(toStringMethod, toStringResolver);
-        builder.put(getIfaceMethod, getIfaceResolver);
-        builder.put(getResolversMethod, getResolversResolver);
-        return builder.build();
+    private <T> T makeProxyForResolvers(Class<T> interfaze, ImmutableMap<Method, ValueResolver> propertyResolvers,
+                                        HierarchicalConfiguration config) {
+        ValueResolver hashResolver = makeHashResolver(interfaze, propertyResolvers, config);
+        ValueResolver toStringResolver = makeToStringResolver(interfaze, propertyResolvers, config);
+        return context.getProxyStrategy().makeProxy(interfaze, propertyResolvers, hashResolver, toStringResolver);
     }
 
-    private ValueResolver makeToStringResolver(Class<?> interfaze, ImmutableMap<Method, ValueResolver> resolverMap) {
+    private ValueResolver makeToStringResolver(Class<?> interfaze, ImmutableMap<Method, ValueResolver> resolverMap,
+                                               HierarchicalConfiguration config) {
         ToStringResolver resolver = new ToStringResolver(interfaze, resolverMap);
         ConfigBinding toStringBinding = ConfigBinding.makeForKeyAndType("$TOSTRING$", TypeToken.of(String.class));
-        return context.getCacheStrategy().decorateForCaching(resolver, toStringBinding, context);
+        return context.getCacheStrategy().decorateForCaching(resolver, toStringBinding, config, context);
     }
 
-    private ValueResolver makeHashResolver(Class<?> interfaze, ImmutableMap<Method, ValueResolver> resolverMap) {
+    private ValueResolver makeHashResolver(Class<?> interfaze, ImmutableMap<Method, ValueResolver> resolverMap,
+                                           HierarchicalConfiguration config) {
         HashCodeResolver resolver = new HashCodeResolver(interfaze, resolverMap);
         ConfigBinding hashBinding = ConfigBinding.makeForKeyAndType("$HASHCODE$",TypeToken.of(Integer.class));
-        return context.getCacheStrategy().decorateForCaching(resolver, hashBinding, context);
+        return context.getCacheStrategy().decorateForCaching(resolver, hashBinding, config, context);
     }
-
-    private boolean proxyEquals(Class<?> thisIface, ImmutableMap<Method, ValueResolver> thisResolvers,
-            Object that) {
-
-        if (!(that instanceof ProxiedConfiguration)) return false;
-        ProxiedConfiguration thatConfig = ((ProxiedConfiguration) that);
-
-        Class<?> thatIface = thatConfig.getInterfaceClass();
-        if (!thisIface.equals(thatIface)) return false;
-
-        ImmutableMap<Method, ValueResolver> thatResolvers = thatConfig.getResolvers();
-        if (thisResolvers.size() != thatResolvers.size())
-            throw new IllegalStateException("not sure how the same iface can have different resolver map");
-
-        for (Entry<Method, ValueResolver> thisEntry : thisResolvers.entrySet()) {
-            Object thisValue = thisEntry.getValue().resolve();
-            Object thatValue = thatResolvers.get(thisEntry.getKey()).resolve();
-            if (!thisValue.equals(thatValue)) return false;
-        }
-
-        return true;
-    }
-
 }
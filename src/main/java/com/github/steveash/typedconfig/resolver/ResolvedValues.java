@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+import com.google.common.collect.Lists;
+
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Static helpers for the generated equals, hashCode, and toString of proxies.  Some return types don't have value
+ * semantics of their own (a Stream compares by identity and can only be consumed once, an array compares by identity)
+ * so they are turned into something that does before they are compared, hashed, or printed
+ *
+ * @author Steve Ash
+ */
+public final class ResolvedValues {
+
+    private ResolvedValues() { }
+
+    /**
+     * @param value the result of a proxy method's resolver
+     * @return the value, or for a Stream or an array a List of its elements
+     */
+    public static Object materialize(Object value) {
+        if (value instanceof Stream)
+            return ((Stream<?>) value).collect(Collectors.toList());
+        if (value != null && value.getClass().isArray())
+            return arrayToList(value);
+        return value;
+    }
+
+    private static List<Object> arrayToList(Object array) {
+        int length = Array.getLength(array);
+        List<Object> elements = Lists.newArrayListWithCapacity(length);
+        for (int i = 0; i < length; i++) {
+            elements.add(materialize(Array.get(array, i)));
+        }
+        return elements;
+    }
+}
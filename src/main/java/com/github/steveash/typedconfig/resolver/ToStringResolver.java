@@ -41,7 +41,7 @@ public class ToStringResolver implements ValueResolver {
         sb.append('[');
         for (Entry<Method, ValueResolver> entry : resolverMap.entrySet()) {
             sb.append(entry.getKey().getName()).append("=");
-            Object result = entry.getValue().resolve();
+            Object result = ResolvedValues.materialize(entry.getValue().resolve());
             sb.append(result == null ? "null" : result.toString());
             sb.append(',');
         }
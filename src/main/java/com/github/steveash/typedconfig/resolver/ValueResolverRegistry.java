@@ -16,18 +16,42 @@
 
 package com.github.steveash.typedconfig.resolver;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
+import com.google.common.reflect.TypeToken;
 import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.Option;
 import com.github.steveash.typedconfig.resolver.type.*;
+import com.github.steveash.typedconfig.resolver.type.container.IndexedListValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.type.container.ListValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.type.container.MapValueResolverFactory;
+import com.github.steveash.typedconfig.resolver.type.container.PrimitiveContainerValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.type.container.SetValueResolverFactory;
+import com.github.steveash.typedconfig.resolver.type.container.SortedMapValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.type.container.SortedSetValueResolverFactory;
+import com.github.steveash.typedconfig.resolver.type.container.StreamValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.type.simple.*;
 
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Provides registry services for ValueResolverFactories to lookup the appropriate factory for the given method handle
+ * <p/>
+ * The factory chosen for each data type and set of options is remembered so repeated lookups don't have to ask
+ * every factory again.  Factories that decide on anything else about the binding must implement
+ * {@link NonMemoizableValueResolverFactory}.  The choices are kept in a {@link ClassValue} on the class in the type
+ * that every other class in it is visible from, so remembering them doesn't pin any class loader
  *
  * @author Steve Ash
  */
@@ -50,10 +74,14 @@ public class ValueResolverRegistry {
                     .add(new EnumValueResolverFactory())
                     .add(new ConfigurationValueResolverFactory())
                             // collections
+                    .add(new PrimitiveContainerValueResolverFactory())
+                    .add(new StreamValueResolverFactory())
                     .add(new ListValueResolverFactory())
                     .add(new SetValueResolverFactory())
                     .add(new SortedSetValueResolverFactory())
                     .add(new MapValueResolverFactory())
+                    .add(new SortedMapValueResolverFactory())
+                    .add(new IndexedListValueResolverFactory())
                             // catch all proxy resolver
                     .add(new ProxyValueResolverFactory())
                     .build();
@@ -75,11 +103,120 @@ public class ValueResolverRegistry {
 
     public ValueResolverRegistry(Iterable<? extends ValueResolverFactory> factories) {
         this.factories = ImmutableList.copyOf(factories);
+
+        List<Integer> nonMemoizable = Lists.newArrayList();
+        for (int i = 0; i < this.factories.size(); i++) {
+            if (this.factories.get(i) instanceof NonMemoizableValueResolverFactory)
+                nonMemoizable.add(i);
+        }
+        this.nonMemoizableIndexes = Ints.toArray(nonMemoizable);
     }
 
-    private final Iterable<ValueResolverFactory> factories;
+    private final ImmutableList<ValueResolverFactory> factories;
+    private final int[] nonMemoizableIndexes;
+    // index into factories of the first memoizable factory that can resolve the key
+    private final ClassValue<ConcurrentMap<LookupKey, Integer>> memo =
+            new ClassValue<ConcurrentMap<LookupKey, Integer>>() {
+                @Override
+                protected ConcurrentMap<LookupKey, Integer> computeValue(Class<?> type) {
+                    return new MapMaker().makeMap();
+                }
+            };
 
     public ValueResolverFactory lookup(ConfigBinding binding) {
+        if (binding.getDataType() == null)
+            return scan(binding);
+
+        Class<?> owner = ownerOf(binding.getDataType().getType());
+        ConcurrentMap<LookupKey, Integer> memoForOwner = (owner == null ? null : memo.get(owner));
+        LookupKey key = new LookupKey(binding.getDataType(), binding.getOptions());
+        Integer memoized = (memoForOwner == null ? null : memoForOwner.get(key));
+        if (memoized == null) {
+            memoized = firstMemoizableThatCanResolve(binding);
+            if (memoized < 0)
+                return scan(binding);
+            if (memoForOwner != null)
+                memoForOwner.put(key, memoized);
+        }
+
+        // factories that can't be memoized still get their chance if they come first
+        for (int index : nonMemoizableIndexes) {
+            if (index > memoized)
+                break;
+            if (factories.get(index).canResolveFor(binding))
+                return factories.get(index);
+        }
+        return factories.get(memoized);
+    }
+
+    private int firstMemoizableThatCanResolve(ConfigBinding binding) {
+        for (int i = 0; i < factories.size(); i++) {
+            ValueResolverFactory factory = factories.get(i);
+            if (!(factory instanceof NonMemoizableValueResolverFactory) && factory.canResolveFor(binding))
+                return i;
+        }
+        return -1;
+    }
+
+    // the class in the type whose loader can see every other class in it, so remembering the type on that class
+    // doesn't keep anything alive longer than the class itself; null if there isn't one (or there are type variables)
+    private static Class<?> ownerOf(Type type) {
+        if (type instanceof Class)
+            return (Class<?>) type;
+
+        List<Class<?>> classes = Lists.newArrayList();
+        if (!collectClasses(type, classes))
+            return null;
+        Class<?> owner = classes.get(0);
+        for (Class<?> candidate : classes) {
+            if (isSameOrParent(owner.getClassLoader(), candidate.getClassLoader()))
+                owner = candidate;
+            else if (!isSameOrParent(candidate.getClassLoader(), owner.getClassLoader()))
+                return null;
+        }
+        return owner;
+    }
+
+    private static boolean collectClasses(Type type, List<Class<?>> classes) {
+        if (type instanceof Class) {
+            classes.add((Class<?>) type);
+            return true;
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            if (parameterized.getOwnerType() != null && !collectClasses(parameterized.getOwnerType(), classes))
+                return false;
+            if (!collectClasses(parameterized.getRawType(), classes))
+                return false;
+            for (Type argument : parameterized.getActualTypeArguments()) {
+                if (!collectClasses(argument, classes))
+                    return false;
+            }
+            return true;
+        }
+        if (type instanceof GenericArrayType)
+            return collectClasses(((GenericArrayType) type).getGenericComponentType(), classes);
+        if (type instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) type;
+            for (Type bound : Iterables.concat(ImmutableList.copyOf(wildcard.getUpperBounds()),
+                    ImmutableList.copyOf(wildcard.getLowerBounds()))) {
+                if (!collectClasses(bound, classes))
+                    return false;
+            }
+            return true;
+        }
+        return false; // type variables drag their generic declaration along
+    }
+
+    private static boolean isSameOrParent(ClassLoader parent, ClassLoader loader) {
+        for (ClassLoader l = loader; l != null; l = l.getParent()) {
+            if (l == parent)
+                return true;
+        }
+        return parent == null;
+    }
+
+    private ValueResolverFactory scan(ConfigBinding binding) {
         for (ValueResolverFactory factory : factories) {
             if (factory.canResolveFor(binding)) {
                 return factory;
@@ -88,4 +225,27 @@ public class ValueResolverRegistry {
         throw new IllegalArgumentException("No ValueResolverFactory is registered that can resolve configuration " +
                 "for the " + binding.getConfigKeyToLookup() + ", type " + binding.getDataType());
     }
+
+    private static final class LookupKey {
+        private final TypeToken<?> dataType;
+        private final ImmutableSet<Option> options;
+
+        private LookupKey(TypeToken<?> dataType, List<Option> options) {
+            this.dataType = dataType;
+            this.options = Sets.immutableEnumSet(options);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LookupKey)) return false;
+            LookupKey that = (LookupKey) o;
+            return dataType.equals(that.dataType) && options.equals(that.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(dataType, options);
+        }
+    }
 }
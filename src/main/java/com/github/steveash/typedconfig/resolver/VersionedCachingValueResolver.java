@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the value of the delegate along with the version of the configuration that it was computed under.  The
+ * value is recomputed lazily the first time it is accessed after the version moves on
+ *
+ * @author Steve Ash
+ */
+public class VersionedCachingValueResolver extends ForwardingValueResolver {
+
+    private final AtomicLong version;
+    // value and version are published together so a racing recompute can't pair a value with the wrong version
+    private volatile Versioned cached = null;
+
+    public VersionedCachingValueResolver(ValueResolver delegate, AtomicLong version) {
+        super(delegate);
+        this.version = version;
+    }
+
+    @Override
+    public Object resolve() {
+        long currentVersion = version.get();
+        Versioned snapshot = cached;
+        if (snapshot != null && snapshot.version == currentVersion)
+            return snapshot.value;
+
+        // read the version before resolving so that a change during the resolve makes this stale immediately
+        Object value = super.resolve();
+        cached = new Versioned(value, currentVersion);
+        return value;
+    }
+
+    private static final class Versioned {
+        private final Object value;
+        private final long version;
+
+        private Versioned(Object value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
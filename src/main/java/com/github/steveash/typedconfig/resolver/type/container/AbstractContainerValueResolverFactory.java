@@ -16,6 +16,7 @@
 
 package com.github.steveash.typedconfig.resolver.type.container;
 
+import com.google.common.base.Function;
 import com.google.common.base.Throwables;
 import com.google.common.reflect.TypeToken;
 import org.apache.commons.configuration.HierarchicalConfiguration;
@@ -23,11 +24,15 @@ import org.apache.commons.configuration.SubnodeConfiguration;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.Option;
+import com.github.steveash.typedconfig.annotation.LazyElements;
 import com.github.steveash.typedconfig.exception.InvalidProxyException;
+import com.github.steveash.typedconfig.resolver.UncacheableValueResolver;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 import com.github.steveash.typedconfig.resolver.ValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.ValueType;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -35,76 +40,131 @@ import java.util.List;
 /**
  * The base factory which knows how to handle container types.  Implementors just need to be able to produce
  * the type of collection that they want to use and then are also given an opportunity
+ * <p/>
+ * All of the type and factory resolution for the contained type happens once when the resolver is made; resolving
+ * only reads and converts the values
  *
  * @author Steve Ash
  */
 public abstract class AbstractContainerValueResolverFactory implements ValueResolverFactory {
+
+    protected static final Type iteratorReturnType = genericReturnType(Iterable.class, "iterator");
+    protected static final Type nextReturnType = genericReturnType(Iterator.class, "next");
+
     @Override
     public ValueResolver makeForThis(final ConfigBinding containerBinding, final HierarchicalConfiguration config,
                                      final ConfigFactoryContext context) {
-        return new ValueResolver() {
+
+        TypeToken<?> thisType = getContainedType(containerBinding.getDataType());
+        final ConfigBinding childBinding = containerBinding
+                .withKey("")
+                .withDataType(thisType)
+                .withOptions(Option.EmptyOptions);
+        final ValueResolverFactory childFactory = context.getRegistry().lookup(childBinding);
+        final Function<Collection<Object>, Object> returnValueFunction = makeReturnValueFunction(containerBinding);
+
+        switch (childFactory.getValueType()) {
+            case Simple:
+            case Nested:
+                break;
+            default:
+                throw new InvalidProxyException("The proxy method returning " + containerBinding.getDataType() +
+                        " for configuration key " + containerBinding.getConfigKeyToLookup() + " uses a container type " +
+                        "which returns " + thisType + " which is also a container type.  You can't have " +
+                        "containers of container types.");
+        }
+        boolean isNested = (childFactory.getValueType() == ValueType.Nested);
+        Function<Object, Object> elementMaker = (isNested ?
+                nestedElementMaker(childBinding, childFactory, context) :
+                simpleElementMaker(containerBinding, childFactory.makeForThis(childBinding, config, context)));
+        boolean isLazy = isLazy(containerBinding, isNested);
+
+        if (isSingleUse(containerBinding))
+            return new SingleUseContainerResolver(containerBinding, config, isNested, isLazy, elementMaker,
+                    returnValueFunction);
+        return new ContainerResolver(containerBinding, config, isNested, isLazy, elementMaker, returnValueFunction);
+    }
+
+    private static Function<Object, Object> nestedElementMaker(final ConfigBinding childBinding,
+                                                               final ValueResolverFactory childFactory,
+                                                               final ConfigFactoryContext context) {
+        return new Function<Object, Object>() {
             @Override
-            public Object resolve() {
-                TypeToken<?> thisType = getContainedType(containerBinding.getDataType());
-                ConfigBinding childBinding = containerBinding
-                        .withKey("")
-                        .withDataType(thisType)
-                        .withOptions(Option.EmptyOptions);
-
-                ValueResolverFactory childFactory = context.getRegistry().lookup(childBinding);
-
-                switch (childFactory.getValueType()) {
-                    case Simple:
-                        return makeForSimpleType(childBinding, childFactory);
-                    case Nested:
-                        return makeForNestedType(childBinding, childFactory);
-                    default:
-                        throw new InvalidProxyException("The proxy method returning " + containerBinding.getDataType() +
-                                " for configuration key " + containerBinding.getConfigKeyToLookup() + " uses a container type " +
-                                "which returns " + thisType + " which is also a container type.  You can't have " +
-                                "containers of container types.");
-                }
+            public Object apply(Object source) {
+                SubnodeConfiguration childConfig = (SubnodeConfiguration) source;
+                ConfigBinding subBinding = childBinding.withKey(childConfig.getSubnodeKey());
+                return childFactory.makeForThis(subBinding, childConfig, context).resolve();
             }
+        };
+    }
+
+    private static Function<Object, Object> simpleElementMaker(final ConfigBinding containerBinding,
+                                                               final ValueResolver simpleChildResolver) {
+        return new Function<Object, Object>() {
+            @Override
+            public Object apply(Object source) {
+                if (!(source instanceof String))
+                    throw new IllegalArgumentException("Can only use Configuration instances which return string " +
+                            "representations of the values which we will then convert. XMLConfiguration does this. " +
+                            "Found " + source + " for configuration key " + containerBinding.getConfigKeyToLookup());
 
-            private Object makeForNestedType(ConfigBinding childBinding, ValueResolverFactory childFactory) {
-                List<HierarchicalConfiguration> childConfigs =
-                        config.configurationsAt(containerBinding.getConfigKeyToLookup());
-                Collection<Object> values = makeEmptyCollection(childConfigs.size());
-                for (HierarchicalConfiguration childConfig : childConfigs) {
-                    SubnodeConfiguration childConfigAsSub = (SubnodeConfiguration) childConfig;
-                    ConfigBinding subBinding = childBinding.withKey(childConfigAsSub.getSubnodeKey());
-                    ValueResolver r = childFactory.makeForThis(subBinding, childConfig, context);
-                    values.add(r.resolve());
-                }
-                return makeReturnValueFrom(values, containerBinding);
+                return simpleChildResolver.convertDefaultValue((String) source);
             }
+        };
+    }
 
-            private Object makeForSimpleType(ConfigBinding childBinding, ValueResolverFactory childFactory) {
-                ValueResolver childResolver = childFactory.makeForThis(childBinding, config, context);
-                List<Object> configValues = config.getList(containerBinding.getConfigKeyToLookup());
+    private class ContainerResolver implements ValueResolver {
+        private final ConfigBinding containerBinding;
+        private final HierarchicalConfiguration config;
+        private final boolean isNested;
+        private final boolean isLazy;
+        private final Function<Object, Object> elementMaker;
+        private final Function<Collection<Object>, Object> returnValueFunction;
+
+        private ContainerResolver(ConfigBinding containerBinding, HierarchicalConfiguration config, boolean isNested,
+                                  boolean isLazy, Function<Object, Object> elementMaker,
+                                  Function<Collection<Object>, Object> returnValueFunction) {
+            this.containerBinding = containerBinding;
+            this.config = config;
+            this.isNested = isNested;
+            this.isLazy = isLazy;
+            this.elementMaker = elementMaker;
+            this.returnValueFunction = returnValueFunction;
+        }
 
-                Collection<Object> containedValues = makeEmptyCollection(configValues.size());
-                for (Object o : configValues) {
-                    if (!(o instanceof String))
-                        throw new IllegalArgumentException("Can only use Configuration instances which return string " +
-                                "representations of the values which we will then convert. XMLConfiguration does this");
+        @Override
+        public Object resolve() {
+            // sub configurations for nested types and the raw (string) values for simple types
+            List<?> sources = (isNested ?
+                    config.configurationsAt(containerBinding.getConfigKeyToLookup()) :
+                    config.getList(containerBinding.getConfigKeyToLookup()));
+            if (isLazy)
+                return makeLazyReturnValue(sources, elementMaker, containerBinding);
 
-                    containedValues.add(childResolver.convertDefaultValue((String) o));
-                }
-                return makeReturnValueFrom(containedValues, containerBinding);
+            Collection<Object> values = makeEmptyCollection(sources.size());
+            for (Object source : sources) {
+                values.add(elementMaker.apply(source));
             }
+            return returnValueFunction.apply(values);
+        }
 
+        @Override
+        public Object convertDefaultValue(String defaultValue) {
+            throw new IllegalStateException("cannot specify a defaults for container types");
+        }
 
-            @Override
-            public Object convertDefaultValue(String defaultValue) {
-                throw new IllegalStateException("cannot specify a defaults for container types");
-            }
+        @Override
+        public String configurationKeyToLookup() {
+            return containerBinding.getConfigKeyToLookup();
+        }
+    }
 
-            @Override
-            public String configurationKeyToLookup() {
-                return containerBinding.getConfigKeyToLookup();
-            }
-        };
+    private class SingleUseContainerResolver extends ContainerResolver implements UncacheableValueResolver {
+        private SingleUseContainerResolver(ConfigBinding containerBinding, HierarchicalConfiguration config,
+                                           boolean isNested, boolean isLazy, Function<Object, Object> elementMaker,
+                                           Function<Collection<Object>, Object> returnValueFunction) {
+            super(containerBinding, config, isNested, isLazy, elementMaker, returnValueFunction);
+        }
     }
 
     /**
@@ -131,12 +191,83 @@ public abstract class AbstractContainerValueResolverFactory implements ValueReso
         return containedValues;
     }
 
+    /**
+     * Called once when the resolver is made to get the function that turns the collected values into the return
+     * value.  The default calls #makeReturnValueFrom; override this if there is per binding work (annotation
+     * lookups, type resolution) that can be done up front instead of on every resolve
+     *
+     * @param binding
+     * @return
+     */
+    protected Function<Collection<Object>, Object> makeReturnValueFunction(final ConfigBinding binding) {
+        return new Function<Collection<Object>, Object>() {
+            @Override
+            public Object apply(Collection<Object> containedValues) {
+                return makeReturnValueFrom(containedValues, binding);
+            }
+        };
+    }
+
+    /**
+     * @param binding
+     * @return true if this factory can return a lazy list of nested proxies (@see LazyElements) for the binding
+     */
+    protected boolean canReturnLazyElements(ConfigBinding binding) {
+        return false;
+    }
+
+    /**
+     * If this returns true then the collection isn't built on resolve and #makeLazyReturnValue is called instead.
+     * The default is true for nested types marked with @LazyElements
+     *
+     * @param binding
+     * @param isNested true if the contained type is a nested proxy
+     * @return
+     */
+    protected boolean isLazy(ConfigBinding binding, boolean isNested) {
+        return isNested && isMarkedLazy(binding);
+    }
+
+    /**
+     * @param sources the sub configurations (for nested types) or the raw values (for simple types) of the elements
+     * @param elementMaker turns one of the sources into an element
+     * @param binding
+     * @return the view of the elements to return from the proxy method
+     */
+    protected Object makeLazyReturnValue(List<?> sources, Function<Object, Object> elementMaker,
+                                         ConfigBinding binding) {
+        return new LazyElementList(sources, elementMaker);
+    }
+
+    /**
+     * @param binding
+     * @return true if the values returned for the binding can only be used once (like streams) and so must never be
+     * cached
+     */
+    protected boolean isSingleUse(ConfigBinding binding) {
+        return false;
+    }
+
+    private boolean isMarkedLazy(ConfigBinding binding) {
+        for (Annotation annotation : binding.getAnnotations()) {
+            if (annotation instanceof LazyElements) {
+                if (!canReturnLazyElements(binding))
+                    throw new InvalidProxyException("The proxy method returning " + binding.getDataType() +
+                            " for configuration key " + binding.getConfigKeyToLookup() + " is marked with " +
+                            "@LazyElements but only methods returning List or Collection can be lazy");
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected TypeToken<?> getContainedType(TypeToken<?> returnType) {
+        return returnType.resolveType(iteratorReturnType).resolveType(nextReturnType);
+    }
+
+    protected static Type genericReturnType(Class<?> clazz, String methodName) {
         try {
-            TypeToken<?> iteratorType = returnType.resolveType(
-                    Iterable.class.getMethod("iterator").getGenericReturnType());
-            return iteratorType.resolveType(
-                    Iterator.class.getMethod("next").getGenericReturnType());
+            return clazz.getMethod(methodName).getGenericReturnType();
         } catch (NoSuchMethodException e) {
             throw Throwables.propagate(e);
         }
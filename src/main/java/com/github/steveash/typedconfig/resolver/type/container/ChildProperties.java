@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.base.Throwables;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Reads javabean properties (for @MapKey and @Index) off of the children in a container.  The getter is found once
+ * when the container's resolver is made; reading a property from a child proxy just calls the resolver behind that
+ * getter so there is no bean introspection and the value keeps its type
+ *
+ * @author Steve Ash
+ */
+final class ChildProperties {
+
+    private ChildProperties() { }
+
+    /**
+     * @param childClass
+     * @param property
+     * @return the public getter (getX or isX) for the property or null if there isn't one
+     */
+    static Method findGetter(Class<?> childClass, String property) {
+        String capitalized = StringUtils.capitalize(property);
+        for (String name : new String[]{"get" + capitalized, "is" + capitalized}) {
+            try {
+                return childClass.getMethod(name);
+            } catch (NoSuchMethodException e) {
+                // try the next one
+            }
+        }
+        return null;
+    }
+
+    static Object read(Object child, Method getter) {
+        if (child instanceof ProxiedConfiguration) {
+            ValueResolver resolver = ((ProxiedConfiguration) child).getResolvers().get(getter);
+            if (resolver != null)
+                return resolver.resolve();
+        }
+        try {
+            return getter.invoke(child);
+        } catch (InvocationTargetException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.google.common.base.Function;
+
+/**
+ * Implemented by the containers that wrap their elements with extra behavior (required keys, indexes) so that a
+ * copy with different elements keeps that behavior; used to freeze a proxy graph
+ *
+ * @author Steve Ash
+ */
+public interface CopyableContainer {
+
+    /**
+     * @param transform applied to each element (map value) of this container
+     * @return an immutable container of the same kind holding the transformed elements
+     */
+    Object copyTransformingElements(Function<Object, Object> transform);
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.google.common.base.Function;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator that makes the elements of a container from the spliterator of its sources (sub configurations or raw
+ * values) as they are consumed.  It splits exactly like the sources do and keeps their size so parallel streams
+ * can divide the work evenly
+ *
+ * @author Steve Ash
+ */
+class ElementSpliterator implements Spliterator<Object> {
+
+    private final Spliterator<?> sources;
+    private final Function<Object, Object> elementMaker;
+
+    ElementSpliterator(Spliterator<?> sources, Function<Object, Object> elementMaker) {
+        this.sources = sources;
+        this.elementMaker = elementMaker;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Object> action) {
+        return sources.tryAdvance(new Consumer<Object>() {
+            @Override
+            public void accept(Object source) {
+                action.accept(elementMaker.apply(source));
+            }
+        });
+    }
+
+    @Override
+    public Spliterator<Object> trySplit() {
+        Spliterator<?> prefix = sources.trySplit();
+        return (prefix == null ? null : new ElementSpliterator(prefix, elementMaker));
+    }
+
+    @Override
+    public long estimateSize() {
+        return sources.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        // the elements are new objects so nothing about their order or identity carries over
+        return sources.characteristics() & ~(SORTED | DISTINCT);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.ConfigFactoryContext;
+import com.github.steveash.typedconfig.IndexedList;
+import com.github.steveash.typedconfig.Option;
+import com.github.steveash.typedconfig.annotation.Index;
+import com.github.steveash.typedconfig.exception.InvalidProxyException;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.github.steveash.typedconfig.resolver.ValueResolverFactory;
+import com.github.steveash.typedconfig.resolver.ValueType;
+import com.google.common.base.Function;
+import com.google.common.collect.ForwardingList;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.SubnodeConfiguration;
+import org.apache.commons.configuration.tree.ConfigurationNode;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves {@link IndexedList}s of nested proxies.  The getters for the indexed properties are found once when the
+ * resolver is made and the keys are read straight from the children's resolvers (@see ChildProperties).
+ * <p/>
+ * The list and its indexes are built under the version of the configuration (@see ConfigVersions) and handed out
+ * again until the configuration changes.  Rebuilding after a change is incremental: the resolver remembers the child
+ * proxy it built for each configuration node and reuses it if the node is still there, so only the proxies for new
+ * nodes are built before the indexes are recomputed.  The reused proxies read through to their nodes so they always
+ * see the current values, but like any cached index the indexes only notice changes that fire configuration events
+ *
+ * @author Steve Ash
+ */
+public class IndexedListValueResolverFactory implements ValueResolverFactory {
+
+    @Override
+    public ValueResolver makeForThis(final ConfigBinding containerBinding, final HierarchicalConfiguration config,
+                                     final ConfigFactoryContext context) {
+
+        TypeToken<?> childType = containerBinding.getDataType()
+                .resolveType(AbstractContainerValueResolverFactory.iteratorReturnType)
+                .resolveType(AbstractContainerValueResolverFactory.nextReturnType);
+        final ConfigBinding childBinding = containerBinding
+                .withKey("")
+                .withDataType(childType)
+                .withOptions(Option.EmptyOptions);
+        final ValueResolverFactory childFactory = context.getRegistry().lookup(childBinding);
+        if (childFactory.getValueType() != ValueType.Nested)
+            throw new InvalidProxyException("The proxy method returning " + containerBinding.getDataType() +
+                    " for configuration key " + containerBinding.getConfigKeyToLookup() + " must contain " +
+                    "nested proxy types; " + childType + " isn't one");
+
+        final ImmutableMap<String, Method> getters = findGetters(containerBinding, childType.getRawType());
+        final AtomicLong version = context.getConfigVersions().versionFor(config);
+
+        return new ValueResolver() {
+            private volatile Built built = new Built(-1, Collections.<ConfigurationNode, Object>emptyMap(), null);
+
+            @Override
+            public Object resolve() {
+                // read the version before building so that a change during the build makes this stale immediately
+                long currentVersion = version.get();
+                Built snapshot = built;
+                if (snapshot.list != null && snapshot.version == currentVersion)
+                    return snapshot.list;
+
+                List<HierarchicalConfiguration> childConfigs =
+                        config.configurationsAt(containerBinding.getConfigKeyToLookup());
+                Map<ConfigurationNode, Object> previous = snapshot.children;
+                Map<ConfigurationNode, Object> current = new IdentityHashMap<ConfigurationNode, Object>();
+
+                ImmutableList.Builder<Object> children = ImmutableList.builder();
+                for (HierarchicalConfiguration childConfig : childConfigs) {
+                    ConfigurationNode node = childConfig.getRootNode();
+                    Object child = previous.get(node);
+                    if (child == null) {
+                        SubnodeConfiguration childConfigAsSub = (SubnodeConfiguration) childConfig;
+                        ConfigBinding subBinding = childBinding.withKey(childConfigAsSub.getSubnodeKey());
+                        child = childFactory.makeForThis(subBinding, childConfig, context).resolve();
+                    }
+                    current.put(node, child);
+                    children.add(child);
+                }
+                SimpleIndexedList<Object> list = new SimpleIndexedList<Object>(children.build(), getters);
+                built = new Built(currentVersion, current, list);
+                return list;
+            }
+
+            @Override
+            public Object convertDefaultValue(String defaultValue) {
+                throw new IllegalStateException("cannot specify a defaults for container types");
+            }
+
+            @Override
+            public String configurationKeyToLookup() {
+                return containerBinding.getConfigKeyToLookup();
+            }
+        };
+    }
+
+    private static ImmutableMap<String, Method> findGetters(ConfigBinding binding, Class<?> childClass) {
+        Map<String, Method> getters = Maps.newLinkedHashMap();
+        for (Annotation annotation : binding.getAnnotations()) {
+            if (!(annotation instanceof Index))
+                continue;
+
+            for (String property : ((Index) annotation).value()) {
+                Method getter = ChildProperties.findGetter(childClass, property);
+                if (getter == null)
+                    throw new InvalidProxyException("The proxy method returning " + binding.getDataType() +
+                            " indexes the property " + property + " but " + childClass.getName() + " has no " +
+                            "getter for it");
+                getters.put(property, getter);
+            }
+        }
+        return ImmutableMap.copyOf(getters);
+    }
+
+    @Override
+    public boolean canResolveFor(ConfigBinding configBinding) {
+        return configBinding.getDataType().getRawType().equals(IndexedList.class);
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.Container;
+    }
+
+    // published together so a racing rebuild can't pair a list with the wrong version
+    private static final class Built {
+        private final long version;
+        private final Map<ConfigurationNode, Object> children;
+        private final SimpleIndexedList<Object> list;
+
+        private Built(long version, Map<ConfigurationNode, Object> children, SimpleIndexedList<Object> list) {
+            this.version = version;
+            this.children = children;
+            this.list = list;
+        }
+    }
+
+    private static final class SimpleIndexedList<T> extends ForwardingList<T> implements IndexedList<T>,
+            CopyableContainer {
+
+        private final ImmutableList<T> children;
+        private final ImmutableMap<String, Method> getters;
+        private final ImmutableMap<String, ImmutableListMultimap<Object, T>> indexes;
+
+        private SimpleIndexedList(ImmutableList<T> children, ImmutableMap<String, Method> getters) {
+            this.children = children;
+            this.getters = getters;
+            ImmutableMap.Builder<String, ImmutableListMultimap<Object, T>> indexes = ImmutableMap.builder();
+            for (Map.Entry<String, Method> getter : getters.entrySet()) {
+                indexes.put(getter.getKey(), buildIndex(children, getter.getValue()));
+            }
+            this.indexes = indexes.build();
+        }
+
+        private static <T> ImmutableListMultimap<Object, T> buildIndex(ImmutableList<T> children, Method getter) {
+            ImmutableListMultimap.Builder<Object, T> index = ImmutableListMultimap.builder();
+            for (T child : children) {
+                Object key = ChildProperties.read(child, getter);
+                if (key != null)
+                    index.put(key, child);
+            }
+            return index.build();
+        }
+
+        @Override
+        protected List<T> delegate() {
+            return children;
+        }
+
+        @Override
+        public T findBy(String property, Object value) {
+            ImmutableList<T> found = findAllBy(property, value);
+            return (found.isEmpty() ? null : found.get(0));
+        }
+
+        @Override
+        public ImmutableList<T> findAllBy(String property, Object value) {
+            return indexOn(property).get(value);
+        }
+
+        @Override
+        public ImmutableListMultimap<Object, T> indexOn(String property) {
+            ImmutableListMultimap<Object, T> index = indexes.get(property);
+            if (index == null)
+                throw new IllegalArgumentException("The property " + property + " isn't indexed; only " +
+                        indexes.keySet() + " are");
+            return index;
+        }
+
+        @Override
+        public Object copyTransformingElements(Function<Object, Object> transform) {
+            return new SimpleIndexedList<Object>(ImmutableList.copyOf(Lists.transform(children, transform)), getters);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.google.common.base.Function;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Unmodifiable list of nested proxies that only builds the proxy for an element the first time that it is asked
+ * for and then memoizes it.  Iterating goes through #get so it doesn't build anything ahead of the iterator.
+ * Thread safe; if two threads race on the same element then both build it but only the first one is kept
+ *
+ * @author Steve Ash
+ */
+class LazyElementList extends AbstractList<Object> implements RandomAccess {
+
+    private final List<?> sources;
+    private final Function<Object, Object> elementMaker;
+    private final AtomicReferenceArray<Object> elements;
+
+    LazyElementList(List<?> sources, Function<Object, Object> elementMaker) {
+        this.sources = sources;
+        this.elementMaker = elementMaker;
+        this.elements = new AtomicReferenceArray<Object>(sources.size());
+    }
+
+    @Override
+    public Object get(int index) {
+        Object element = elements.get(index);
+        if (element != null)
+            return element;
+
+        element = elementMaker.apply(sources.get(index));
+        if (elements.compareAndSet(index, null, element))
+            return element;
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.length();
+    }
+
+    /**
+     * @return how many of the elements have been built so far
+     */
+    int builtCount() {
+        int count = 0;
+        for (int i = 0; i < elements.length(); i++) {
+            if (elements.get(i) != null)
+                count += 1;
+        }
+        return count;
+    }
+}
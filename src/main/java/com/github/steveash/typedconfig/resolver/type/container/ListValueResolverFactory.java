@@ -21,6 +21,7 @@ import com.google.common.collect.Lists;
 import com.github.steveash.typedconfig.ConfigBinding;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * @author Steve Ash
@@ -36,6 +37,11 @@ public class ListValueResolverFactory extends AbstractContainerValueResolverFact
         return ImmutableList.copyOf(containedValues);
     }
 
+    @Override
+    protected boolean canReturnLazyElements(ConfigBinding binding) {
+        return binding.getDataType().getRawType().isAssignableFrom(List.class);
+    }
+
     @Override
     public boolean canResolveFor(ConfigBinding configBinding) {
         return configBinding.getDataType().getRawType().isAssignableFrom(ImmutableList.class);
@@ -16,30 +16,41 @@
 
 package com.github.steveash.typedconfig.resolver.type.container;
 
-import com.google.common.base.Throwables;
+import com.google.common.base.Function;
 import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Primitives;
 import com.google.common.reflect.TypeToken;
-import org.apache.commons.beanutils.BeanUtils;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.annotation.MapKey;
 import com.github.steveash.typedconfig.exception.InvalidProxyException;
 import com.github.steveash.typedconfig.exception.RequiredConfigurationKeyNotPresentException;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
 /**
+ * Resolves maps of children keyed by the child property named in @MapKey.  The property's getter and its type are
+ * checked once when the resolver is made and the keys are read from the children's own resolvers, so they keep
+ * their type.  Maps with String keys over a non-String property get the string form of the property, as before
+ *
  * @author Steve Ash
  */
 public class MapValueResolverFactory extends AbstractContainerValueResolverFactory {
 
+    private static final Type entrySetReturnType = genericReturnType(Map.class, "entrySet");
+    private static final Type setIteratorReturnType = genericReturnType(Set.class, "iterator");
+    private static final Type getKeyReturnType = genericReturnType(Entry.class, "getKey");
+    private static final Type getValueReturnType = genericReturnType(Entry.class, "getValue");
+
     @Override
     protected Collection<Object> makeEmptyCollection(int size) {
         return Lists.newArrayListWithCapacity(size);
@@ -48,66 +59,88 @@ public class MapValueResolverFactory extends AbstractContainerValueResolverFacto
     // maps aren't iterable so we need another resolution to get to the right generic type
     @Override
     protected TypeToken<?> getContainedType(TypeToken<?> mapType) {
-        try {
-            return getEntryType(mapType)
-                    .resolveType(Entry.class.getDeclaredMethod("getValue").getGenericReturnType());
-
-        } catch (NoSuchMethodException e) {
-            throw Throwables.propagate(e);
-        }
+        return getEntryType(mapType).resolveType(getValueReturnType);
     }
 
     protected TypeToken<?> getKeyType(TypeToken<?> mapType) {
-        try {
-            return getEntryType(mapType)
-                    .resolveType(Entry.class.getDeclaredMethod("getKey").getGenericReturnType());
-
-        } catch (NoSuchMethodException e) {
-            throw Throwables.propagate(e);
-        }
+        return getEntryType(mapType).resolveType(getKeyReturnType);
     }
 
-    private TypeToken<?> getEntryType(TypeToken<?> mapType) throws NoSuchMethodException {
+    private TypeToken<?> getEntryType(TypeToken<?> mapType) {
         return mapType
-                .resolveType(Map.class.getDeclaredMethod("entrySet").getGenericReturnType())
-                .resolveType(Set.class.getDeclaredMethod("iterator").getGenericReturnType())
-                .resolveType(Iterator.class.getDeclaredMethod("next").getGenericReturnType());
+                .resolveType(entrySetReturnType)
+                .resolveType(setIteratorReturnType)
+                .resolveType(nextReturnType);
+    }
+
+    @Override
+    protected Function<Collection<Object>, Object> makeReturnValueFunction(final ConfigBinding binding) {
+        final MapKey mapKeyAnnotation = findMapKeyAnnotation(binding);
+        final Method keyGetter = findKeyGetterOrThrow(mapKeyAnnotation.value(), binding);
+        final boolean stringifyKey = throwIfInvalidValidType(getKeyType(binding.getDataType()), keyGetter, binding);
+        return new Function<Collection<Object>, Object>() {
+            @Override
+            public Object apply(Collection<Object> containedValues) {
+                return makeMap(containedValues, binding, mapKeyAnnotation, keyGetter, stringifyKey);
+            }
+        };
     }
 
     @Override
     protected Object makeReturnValueFrom(Collection<Object> containedValues, ConfigBinding binding) {
-        MapKey mapKeyAnnotation = findMapKeyAnnotation(binding);
-        TypeToken<?> keyType = getKeyType(binding.getDataType());
-        Builder<Object, Object> builder = ImmutableMap.builder();
+        return makeReturnValueFunction(binding).apply(containedValues);
+    }
+
+    private Object makeMap(Collection<Object> containedValues, ConfigBinding binding, MapKey mapKeyAnnotation,
+                           Method keyGetter, boolean stringifyKey) {
+        Builder<Object, Object> builder = makeMapBuilder();
         for (Object value : containedValues) {
-            Object keyValue = getKeyValueOrThrow(mapKeyAnnotation.value(), value, binding);
-            throwIfInvalidValidType(keyType, keyValue, binding);
+            Object keyValue = ChildProperties.read(value, keyGetter);
+            if (stringifyKey && keyValue != null)
+                keyValue = keyValue.toString();
             builder.put(keyValue, value);
         }
 
         Map<Object, Object> map = builder.build();
         if (mapKeyAnnotation.required())
-            map = new RequiredValueMap<Object, Object>(map, binding);
+            map = makeRequiredValueMap(map, binding);
 
         return map;
     }
 
-    private void throwIfInvalidValidType(TypeToken<?> keyType, Object keyValue, ConfigBinding binding) {
-        if (keyType.getRawType().isAssignableFrom(keyType.getRawType()))
-            return;
+    protected Builder<Object, Object> makeMapBuilder() {
+        return ImmutableMap.builder();
+    }
+
+    /**
+     * @param map the map built by the builder from #makeMapBuilder
+     * @param binding
+     * @return a view of the map that throws on get for missing keys
+     */
+    protected Map<Object, Object> makeRequiredValueMap(Map<Object, Object> map, ConfigBinding binding) {
+        return new RequiredValueMap<Object, Object>(map, binding);
+    }
+
+    // returns true if the key needs to be converted to a string to fit in the map
+    private boolean throwIfInvalidValidType(TypeToken<?> keyType, Method keyGetter, ConfigBinding binding) {
+        Class<?> propertyType = Primitives.wrap(keyGetter.getReturnType());
+        if (Primitives.wrap(keyType.getRawType()).isAssignableFrom(propertyType))
+            return false;
+        if (keyType.getRawType().equals(String.class))
+            return true;
         throw new InvalidProxyException("Trying to create the map for config key " + binding.getConfigKeyToLookup() +
-                " but the @MapKey refers to child property with a value " + keyValue + " which is not assignable to " +
-                "the key type which is " + keyType);
+                " but the @MapKey refers to child property " + keyGetter.getName() + " of type " + propertyType +
+                " which is not assignable to the key type which is " + keyType);
     }
 
-    private Object getKeyValueOrThrow(String property, Object bean, ConfigBinding binding) {
-        try {
-            return BeanUtils.getProperty(bean, property);
-        } catch (Exception e) {
+    private Method findKeyGetterOrThrow(String property, ConfigBinding binding) {
+        Class<?> childClass = getContainedType(binding.getDataType()).getRawType();
+        Method getter = ChildProperties.findGetter(childClass, property);
+        if (getter == null)
             throw new InvalidProxyException("Trying to create the map for config key " + binding.getConfigKeyToLookup()
                     + " but the @MapKey refers to child property " + property + " which does not exist on type " +
-                    bean.getClass() + " or invalid in some other way.", e);
-        }
+                    childClass);
+        return getter;
     }
 
     private MapKey findMapKeyAnnotation(ConfigBinding binding) {
@@ -127,7 +160,13 @@ public class MapValueResolverFactory extends AbstractContainerValueResolverFacto
         return configBinding.getDataType().getRawType().isAssignableFrom(Map.class);
     }
 
-    private static final class RequiredValueMap<K, V> extends ForwardingMap<K, V> {
+    static RequiredConfigurationKeyNotPresentException missingKey(ConfigBinding binding, Object key) {
+        return new RequiredConfigurationKeyNotPresentException("Trying to read the map value at configuration " +
+                "location " + binding.getConfigKeyToLookup() + " for key " + key + " but there is no config " +
+                "value for that map key and @MapKey is marked as required");
+    }
+
+    private static final class RequiredValueMap<K, V> extends ForwardingMap<K, V> implements CopyableContainer {
 
         private final Map<K, V> delegate;
         private final ConfigBinding binding;
@@ -146,11 +185,15 @@ public class MapValueResolverFactory extends AbstractContainerValueResolverFacto
         public V get(Object key) {
             V value = super.get(key);
             if (value == null) {
-                throw new RequiredConfigurationKeyNotPresentException("Trying to read the map value at configuration " +
-                        "location " + binding.getConfigKeyToLookup() + " for key " + key + " but there is no config " +
-                        "value for that map key and @MapKey is marked as required");
+                throw missingKey(binding, key);
             }
             return value;
         }
+
+        @Override
+        public Object copyTransformingElements(Function<Object, Object> transform) {
+            Map<K, Object> copy = ImmutableMap.copyOf(Maps.transformValues(delegate, transform));
+            return new RequiredValueMap<K, Object>(copy, binding);
+        }
     }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.ConfigFactoryContext;
+import com.github.steveash.typedconfig.Option;
+import com.github.steveash.typedconfig.resolver.UncacheableValueResolver;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.github.steveash.typedconfig.resolver.ValueResolverFactory;
+import com.github.steveash.typedconfig.resolver.ValueType;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.reflect.TypeToken;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+
+import java.util.List;
+
+/**
+ * Resolves int[], long[], double[], and byte[] return types into primitive arrays so large numeric tables don't cost
+ * a boxed object per element.  Lists and Collections of the wrapper types are still ImmutableLists.
+ * <p/>
+ * Whether the array is kept between calls is up to the cache strategy.  If it is kept then every call returns a copy
+ * of it so callers can't change what the next caller sees; that is an allocation and an O(n) copy per call.  For
+ * large tables that are read often use {@link Option#SHARE_ARRAY} to get the cached array itself; callers must then
+ * never write to it.  If the cache strategy doesn't keep the array then each call builds a new one and there is
+ * nothing to copy
+ *
+ * @author Steve Ash
+ */
+public class PrimitiveContainerValueResolverFactory implements ValueResolverFactory {
+
+    private enum Kind {
+        INT(int.class, Integer.class) {
+            @Override
+            Object toArray(List<Number> values) {
+                return Ints.toArray(values);
+            }
+
+            @Override
+            Object copy(Object array) {
+                return ((int[]) array).clone();
+            }
+        },
+        LONG(long.class, Long.class) {
+            @Override
+            Object toArray(List<Number> values) {
+                return Longs.toArray(values);
+            }
+
+            @Override
+            Object copy(Object array) {
+                return ((long[]) array).clone();
+            }
+        },
+        DOUBLE(double.class, Double.class) {
+            @Override
+            Object toArray(List<Number> values) {
+                return Doubles.toArray(values);
+            }
+
+            @Override
+            Object copy(Object array) {
+                return ((double[]) array).clone();
+            }
+        },
+        BYTE(byte.class, Byte.class) {
+            @Override
+            Object toArray(List<Number> values) {
+                return Bytes.toArray(values);
+            }
+
+            @Override
+            Object copy(Object array) {
+                return ((byte[]) array).clone();
+            }
+        };
+
+        private final Class<?> primitive;
+        private final Class<?> wrapper;
+
+        Kind(Class<?> primitive, Class<?> wrapper) {
+            this.primitive = primitive;
+            this.wrapper = wrapper;
+        }
+
+        abstract Object toArray(List<Number> values);
+
+        abstract Object copy(Object array);
+    }
+
+    @Override
+    public ValueResolver makeForThis(final ConfigBinding binding, final HierarchicalConfiguration config,
+                                     ConfigFactoryContext context) {
+        final Kind kind = kindOf(binding.getDataType());
+        ConfigBinding elementBinding = binding
+                .withKey("")
+                .withDataType(TypeToken.of(kind.wrapper))
+                .withOptions(Option.EmptyOptions);
+        final ValueResolver elementResolver =
+                context.getRegistry().lookup(elementBinding).makeForThis(elementBinding, config, context);
+
+        ValueResolver builder = new ValueResolver() {
+            @Override
+            public Object resolve() {
+                List<Object> rawValues = config.getList(binding.getConfigKeyToLookup());
+                List<Number> values = Lists.newArrayListWithCapacity(rawValues.size());
+                for (Object raw : rawValues) {
+                    if (!(raw instanceof String))
+                        throw new IllegalArgumentException("Can only use Configuration instances which return " +
+                                "string representations of the values which we will then convert. XMLConfiguration " +
+                                "does this. Found " + raw + " for configuration key " +
+                                binding.getConfigKeyToLookup());
+                    values.add((Number) elementResolver.convertDefaultValue((String) raw));
+                }
+                return kind.toArray(values);
+            }
+
+            @Override
+            public Object convertDefaultValue(String defaultValue) {
+                throw new IllegalStateException("cannot specify a defaults for container types");
+            }
+
+            @Override
+            public String configurationKeyToLookup() {
+                return binding.getConfigKeyToLookup();
+            }
+        };
+        if (binding.containsOption(Option.SHARE_ARRAY))
+            return builder; // decorated by the cache strategy like any other resolver
+
+        final ValueResolver cached = context.getCacheStrategy().decorateForCaching(builder, binding, config, context);
+        if (cached == builder)
+            return builder; // not cached so every call already gets its own array
+
+        // already cached so the copy isn't cached again
+        return new UncacheableValueResolver() {
+            @Override
+            public Object resolve() {
+                return kind.copy(cached.resolve());
+            }
+
+            @Override
+            public Object convertDefaultValue(String defaultValue) {
+                return cached.convertDefaultValue(defaultValue);
+            }
+
+            @Override
+            public String configurationKeyToLookup() {
+                return cached.configurationKeyToLookup();
+            }
+        };
+    }
+
+    private static Kind kindOf(TypeToken<?> type) {
+        if (!type.isArray())
+            return null;
+
+        Class<?> component = type.getRawType().getComponentType();
+        for (Kind kind : Kind.values()) {
+            if (kind.primitive.equals(component))
+                return kind;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean canResolveFor(ConfigBinding configBinding) {
+        return kindOf(configBinding.getDataType()) != null;
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.Container;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.exception.InvalidProxyException;
+import com.google.common.base.Function;
+import com.google.common.collect.ForwardingNavigableMap;
+import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Primitives;
+import com.google.common.reflect.TypeToken;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+
+/**
+ * Resolves @MapKey maps declared as SortedMap or NavigableMap.  The map is an ImmutableSortedMap (sorted array
+ * with binary search lookups) in the natural order of the keys, so floor, ceiling, and range views are cheap.  As with
+ * MapValueResolverFactory the getter can't be declared as the immutable type, because a required @MapKey wraps the
+ * map.  Like every other resolver, whether the built map is kept is up to the factory's cache strategy
+ *
+ * @author Steve Ash
+ */
+public class SortedMapValueResolverFactory extends MapValueResolverFactory {
+
+    @Override
+    protected Function<Collection<Object>, Object> makeReturnValueFunction(ConfigBinding binding) {
+        TypeToken<?> keyType = getKeyType(binding.getDataType());
+        if (!Comparable.class.isAssignableFrom(Primitives.wrap(keyType.getRawType())))
+            throw new InvalidProxyException("The proxy method returning " + binding.getDataType() + " for " +
+                    "configuration key " + binding.getConfigKeyToLookup() + " is a sorted map but its key type " +
+                    keyType + " isn't Comparable");
+        return super.makeReturnValueFunction(binding);
+    }
+
+    @Override
+    protected Builder<Object, Object> makeMapBuilder() {
+        return new ImmutableSortedMap.Builder<Object, Object>(NaturalOrder.INSTANCE);
+    }
+
+    @Override
+    protected Map<Object, Object> makeRequiredValueMap(Map<Object, Object> map, ConfigBinding binding) {
+        return new RequiredValueNavigableMap<Object, Object>((NavigableMap<Object, Object>) map, binding);
+    }
+
+    @Override
+    public boolean canResolveFor(ConfigBinding configBinding) {
+        Class<?> rawType = configBinding.getDataType().getRawType();
+        return SortedMap.class.isAssignableFrom(rawType) && rawType.isAssignableFrom(NavigableMap.class);
+    }
+
+    // the key type is checked to be Comparable when the resolver is made
+    private enum NaturalOrder implements Comparator<Object> {
+        INSTANCE;
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public int compare(Object left, Object right) {
+            return ((Comparable<Object>) left).compareTo(right);
+        }
+    }
+
+    private static final class RequiredValueNavigableMap<K, V> extends ForwardingNavigableMap<K, V>
+            implements CopyableContainer {
+
+        private final NavigableMap<K, V> delegate;
+        private final ConfigBinding binding;
+
+        private RequiredValueNavigableMap(NavigableMap<K, V> delegate, ConfigBinding binding) {
+            this.delegate = delegate;
+            this.binding = binding;
+        }
+
+        @Override
+        protected NavigableMap<K, V> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public V get(Object key) {
+            V value = super.get(key);
+            if (value == null) {
+                throw missingKey(binding, key);
+            }
+            return value;
+        }
+
+        @Override
+        public Object copyTransformingElements(Function<Object, Object> transform) {
+            NavigableMap<K, Object> copy = ImmutableSortedMap.copyOfSorted(Maps.transformValues(delegate, transform));
+            return new RequiredValueNavigableMap<K, Object>(copy, binding);
+        }
+    }
+}
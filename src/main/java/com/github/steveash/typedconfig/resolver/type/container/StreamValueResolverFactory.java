@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Resolves Stream return types without building a collection.  The elements (proxies for nested types, converted
+ * values for simple types) are made as they are consumed.  A stream's spliterator splits like the list of child
+ * configurations does (in half) so that parallel streams work on large repeated sections.  Each call returns a new
+ * stream; streams are never cached since they can only be consumed once.  Iterable return types are still resolved
+ * to ImmutableLists by {@link ListValueResolverFactory}
+ *
+ * @author Steve Ash
+ */
+public class StreamValueResolverFactory extends AbstractContainerValueResolverFactory {
+
+    private static final Type streamIteratorReturnType = genericReturnType(Stream.class, "iterator");
+
+    @Override
+    protected Collection<Object> makeEmptyCollection(int size) {
+        return Lists.newArrayListWithCapacity(size);
+    }
+
+    // streams aren't iterable
+    @Override
+    protected TypeToken<?> getContainedType(TypeToken<?> returnType) {
+        return returnType.resolveType(streamIteratorReturnType).resolveType(nextReturnType);
+    }
+
+    @Override
+    protected boolean isLazy(ConfigBinding binding, boolean isNested) {
+        return true;
+    }
+
+    @Override
+    protected boolean isSingleUse(ConfigBinding binding) {
+        return true;
+    }
+
+    @Override
+    protected Object makeLazyReturnValue(List<?> sources, Function<Object, Object> elementMaker,
+                                         ConfigBinding binding) {
+        return StreamSupport.stream(new ElementSpliterator(sources.spliterator(), elementMaker), false);
+    }
+
+    @Override
+    public boolean canResolveFor(ConfigBinding configBinding) {
+        return configBinding.getDataType().getRawType().equals(Stream.class);
+    }
+}
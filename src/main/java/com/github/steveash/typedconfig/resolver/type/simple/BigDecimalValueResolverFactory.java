@@ -16,7 +16,9 @@
 
 package com.github.steveash.typedconfig.resolver.type.simple;
 
+import org.apache.commons.configuration.ConversionException;
 import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.PropertyConverter;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.resolver.ConvertableValueResolver;
@@ -26,6 +28,7 @@ import com.github.steveash.typedconfig.resolver.ValueResolver;
 import java.math.BigDecimal;
 
 /**
+ * Conversions are memoized since parsing big numbers isn't cheap (@see ConvertableValueResolver)
  * @author Steve Ash
  */
 public class BigDecimalValueResolverFactory extends SimpleValueResolverFactory {
@@ -35,10 +38,19 @@ public class BigDecimalValueResolverFactory extends SimpleValueResolverFactory {
                                                  ConfigFactoryContext context) {
 
         final String key = binding.getConfigKeyToLookup();
-        return new ConvertableValueResolver(BigDecimal.class, key) {
+        return new ConvertableValueResolver(BigDecimal.class, key, true) {
             @Override
             public BigDecimal resolve() {
-                return config.getBigDecimal(key, null);
+                return (BigDecimal) convertRaw(config.getString(key, null));
+            }
+
+            @Override
+            protected Object convert(String raw) {
+                try {
+                    return PropertyConverter.toBigDecimal(raw);
+                } catch (ConversionException e) {
+                    throw new ConversionException("'" + key + "' doesn't map to a BigDecimal object", e);
+                }
             }
         };
     }
@@ -16,7 +16,9 @@
 
 package com.github.steveash.typedconfig.resolver.type.simple;
 
+import org.apache.commons.configuration.ConversionException;
 import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.PropertyConverter;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.resolver.ConvertableValueResolver;
@@ -26,6 +28,7 @@ import com.github.steveash.typedconfig.resolver.ValueResolver;
 import java.math.BigInteger;
 
 /**
+ * Conversions are memoized since parsing big numbers isn't cheap (@see ConvertableValueResolver)
  * @author Steve Ash
  */
 public class BigIntegerValueResolverFactory extends SimpleValueResolverFactory {
@@ -35,10 +38,19 @@ public class BigIntegerValueResolverFactory extends SimpleValueResolverFactory {
                                                  ConfigFactoryContext context) {
 
         final String key = binding.getConfigKeyToLookup();
-        return new ConvertableValueResolver(BigInteger.class, key) {
+        return new ConvertableValueResolver(BigInteger.class, key, true) {
             @Override
             public BigInteger resolve() {
-                return config.getBigInteger(binding.getConfigKeyToLookup(), null);
+                return (BigInteger) convertRaw(config.getString(key, null));
+            }
+
+            @Override
+            protected Object convert(String raw) {
+                try {
+                    return PropertyConverter.toBigInteger(raw);
+                } catch (ConversionException e) {
+                    throw new ConversionException("'" + key + "' doesn't map to a BigInteger object", e);
+                }
             }
         };
     }
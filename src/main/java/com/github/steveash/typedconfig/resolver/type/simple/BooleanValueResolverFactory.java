@@ -20,6 +20,7 @@ import org.apache.commons.configuration.HierarchicalConfiguration;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.Option;
+import com.github.steveash.typedconfig.resolver.BooleanValueResolver;
 import com.github.steveash.typedconfig.resolver.ConvertableValueResolver;
 import com.github.steveash.typedconfig.resolver.SimpleValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
@@ -40,9 +41,14 @@ public class BooleanValueResolverFactory extends SimpleValueResolverFactory {
 
     private ValueResolver makeJustCheckKeyExistsResolver(final String configKeyToLookup,
                                                                   final HierarchicalConfiguration config) {
-        return new ValueResolver() {
+        return new BooleanValueResolver() {
             @Override
             public Boolean resolve() {
+                return resolveBoolean();
+            }
+
+            @Override
+            public boolean resolveBoolean() {
                 if (config.containsKey(configKeyToLookup))
                     return true;
 
@@ -69,12 +75,7 @@ public class BooleanValueResolverFactory extends SimpleValueResolverFactory {
 
     private ConvertableValueResolver makeNormalBooleanResolver(final String key,
                                                                         final HierarchicalConfiguration config) {
-        return new ConvertableValueResolver(Boolean.class, key) {
-            @Override
-            public Boolean resolve() {
-                return config.getBoolean(key, null);
-            }
-        };
+        return new BooleanResolver(key, config);
     }
 
     @Override
@@ -83,4 +84,23 @@ public class BooleanValueResolverFactory extends SimpleValueResolverFactory {
                 configBinding.getDataType().isAssignableFrom(Boolean.TYPE)
                 ;
     }
+
+    private static class BooleanResolver extends ConvertableValueResolver implements BooleanValueResolver {
+        private final HierarchicalConfiguration config;
+
+        private BooleanResolver(String key, HierarchicalConfiguration config) {
+            super(Boolean.class, key);
+            this.config = config;
+        }
+
+        @Override
+        public Boolean resolve() {
+            return config.getBoolean(configurationKeyToLookup(), null);
+        }
+
+        @Override
+        public boolean resolveBoolean() {
+            return resolve();
+        }
+    }
 }
@@ -20,6 +20,7 @@ import org.apache.commons.configuration.HierarchicalConfiguration;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.resolver.ConvertableValueResolver;
+import com.github.steveash.typedconfig.resolver.DoubleValueResolver;
 import com.github.steveash.typedconfig.resolver.SimpleValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 
@@ -32,13 +33,7 @@ public class DoubleValueResolverFactory extends SimpleValueResolverFactory {
     public ValueResolver makeForThis(final ConfigBinding binding, final HierarchicalConfiguration config,
                                              ConfigFactoryContext context) {
 
-        final String key = binding.getConfigKeyToLookup();
-        return new ConvertableValueResolver(Double.class, key) {
-            @Override
-            public Double resolve() {
-                return config.getDouble(binding.getConfigKeyToLookup(), null);
-            }
-        };
+        return new DoubleResolver(binding.getConfigKeyToLookup(), config);
     }
 
     @Override
@@ -47,4 +42,23 @@ public class DoubleValueResolverFactory extends SimpleValueResolverFactory {
                 configBinding.getDataType().isAssignableFrom(Double.TYPE)
                 ;
     }
+
+    private static class DoubleResolver extends ConvertableValueResolver implements DoubleValueResolver {
+        private final HierarchicalConfiguration config;
+
+        private DoubleResolver(String key, HierarchicalConfiguration config) {
+            super(Double.class, key);
+            this.config = config;
+        }
+
+        @Override
+        public Double resolve() {
+            return config.getDouble(configurationKeyToLookup(), null);
+        }
+
+        @Override
+        public double resolveDouble() {
+            return resolve();
+        }
+    }
 }
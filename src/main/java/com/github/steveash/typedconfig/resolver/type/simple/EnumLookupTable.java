@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.simple;
+
+import com.github.steveash.typedconfig.annotation.EnumAlias;
+import com.github.steveash.typedconfig.exception.InvalidProxyException;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The labels of an enum's constants: their names plus any {@link EnumAlias} labels.  Built once per enum class so
+ * looking up a label is a single hash probe (plus one more for constants that ignore case).  The tables are kept
+ * in a {@link ClassValue} on the enum, since they hold its constants and would otherwise pin its class loader
+ *
+ * @author Steve Ash
+ */
+final class EnumLookupTable {
+
+    private static final ClassValue<EnumLookupTable> tables = new ClassValue<EnumLookupTable>() {
+        @Override
+        protected EnumLookupTable computeValue(Class<?> enumType) {
+            return new EnumLookupTable(enumType);
+        }
+    };
+
+    private final ImmutableMap<String, Object> exact;
+    private final ImmutableMap<String, Object> ignoringCase;
+
+    static EnumLookupTable forEnum(Class<?> enumType) {
+        return tables.get(enumType);
+    }
+
+    private EnumLookupTable(Class<?> enumType) {
+        Map<String, Object> exact = Maps.newHashMap();
+        Map<String, Object> ignoringCase = Maps.newHashMap();
+        for (Object constant : enumType.getEnumConstants()) {
+            String name = ((Enum<?>) constant).name();
+            putOrThrow(exact, name, constant, enumType);
+
+            EnumAlias alias = aliasOf(enumType, name);
+            if (alias == null)
+                continue;
+            for (String label : alias.value()) {
+                putOrThrow(exact, label, constant, enumType);
+            }
+            if (alias.ignoreCase()) {
+                putOrThrow(ignoringCase, lower(name), constant, enumType);
+                for (String label : alias.value()) {
+                    putOrThrow(ignoringCase, lower(label), constant, enumType);
+                }
+            }
+        }
+        this.exact = ImmutableMap.copyOf(exact);
+        this.ignoringCase = ImmutableMap.copyOf(ignoringCase);
+    }
+
+    /**
+     * @param label
+     * @return the constant for the label or null if there isn't one
+     */
+    Object lookup(String label) {
+        Object constant = exact.get(label);
+        if (constant == null && !ignoringCase.isEmpty())
+            constant = ignoringCase.get(lower(label));
+        return constant;
+    }
+
+    private static EnumAlias aliasOf(Class<?> enumType, String name) {
+        try {
+            return enumType.getField(name).getAnnotation(EnumAlias.class);
+        } catch (NoSuchFieldException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private static void putOrThrow(Map<String, Object> labels, String label, Object constant, Class<?> enumType) {
+        Object existing = labels.put(label, constant);
+        if (existing != null && existing != constant)
+            throw new InvalidProxyException("The enum " + enumType.getName() + " uses the label " + label + " for " +
+                    "both " + existing + " and " + constant);
+    }
+
+    private static String lower(String label) {
+        return label.toLowerCase(Locale.ROOT);
+    }
+}
@@ -21,12 +21,15 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
-import com.github.steveash.typedconfig.resolver.ConvertableValueResolver;
+import com.github.steveash.typedconfig.exception.UnknownEnumLabelException;
 import com.github.steveash.typedconfig.resolver.SimpleValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
-import com.google.common.base.Throwables;
 
 /**
+ * Resolves enums by label through a lookup table built once per enum class; constants can have other labels or
+ * match ignoring case with {@link com.github.steveash.typedconfig.annotation.EnumAlias}.  Unknown labels throw an
+ * {@link UnknownEnumLabelException}
+ *
  * @author Steve Ash
  */
 public class EnumValueResolverFactory extends SimpleValueResolverFactory {
@@ -37,6 +40,7 @@ public class EnumValueResolverFactory extends SimpleValueResolverFactory {
 
         final Class enumType = binding.getDataType().getRawType();
         final String key = binding.getConfigKeyToLookup();
+        final EnumLookupTable table = EnumLookupTable.forEnum(enumType);
         return new ValueResolver() {
             @Override
             public Object resolve() {
@@ -48,13 +52,10 @@ public class EnumValueResolverFactory extends SimpleValueResolverFactory {
             }
 
             private Object resolveEnumInstance(String enumLabel) {
-                try {
-                    return Enum.valueOf(enumType, enumLabel);
-                } catch (IllegalArgumentException e) {
-                    throw new IllegalArgumentException("The value of the configuration key " + key + " is " +
-                                                       enumLabel + " which is not a member of the enum " +
-                                                       enumType.getName(), e);
-                }
+                Object constant = table.lookup(enumLabel);
+                if (constant == null)
+                    throw new UnknownEnumLabelException(key, enumLabel, enumType);
+                return constant;
             }
 
             @Override
@@ -71,6 +72,6 @@ public class EnumValueResolverFactory extends SimpleValueResolverFactory {
 
     @Override
     public boolean canResolveFor(ConfigBinding configBinding) {
-        return configBinding.getDataType().isAssignableFrom(Enum.class);
+        return Enum.class.isAssignableFrom(configBinding.getDataType().getRawType());
     }
 }
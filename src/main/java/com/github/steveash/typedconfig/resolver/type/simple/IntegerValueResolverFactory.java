@@ -20,6 +20,7 @@ import org.apache.commons.configuration.HierarchicalConfiguration;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.resolver.ConvertableValueResolver;
+import com.github.steveash.typedconfig.resolver.IntValueResolver;
 import com.github.steveash.typedconfig.resolver.SimpleValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 
@@ -32,13 +33,7 @@ public class IntegerValueResolverFactory extends SimpleValueResolverFactory {
     public ValueResolver makeForThis(final ConfigBinding binding, final HierarchicalConfiguration config,
                                               ConfigFactoryContext context) {
 
-        final String key = binding.getConfigKeyToLookup();
-        return new ConvertableValueResolver(Integer.class, key) {
-            @Override
-            public Integer resolve() {
-                return config.getInteger(binding.getConfigKeyToLookup(), null);
-            }
-        };
+        return new IntegerResolver(binding.getConfigKeyToLookup(), config);
     }
 
     @Override
@@ -47,4 +42,23 @@ public class IntegerValueResolverFactory extends SimpleValueResolverFactory {
                 configBinding.getDataType().isAssignableFrom(Integer.TYPE)
                 ;
     }
+
+    private static class IntegerResolver extends ConvertableValueResolver implements IntValueResolver {
+        private final HierarchicalConfiguration config;
+
+        private IntegerResolver(String key, HierarchicalConfiguration config) {
+            super(Integer.class, key);
+            this.config = config;
+        }
+
+        @Override
+        public Integer resolve() {
+            return config.getInteger(configurationKeyToLookup(), null);
+        }
+
+        @Override
+        public int resolveInt() {
+            return resolve();
+        }
+    }
 }
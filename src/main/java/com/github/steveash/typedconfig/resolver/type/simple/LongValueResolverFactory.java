@@ -20,6 +20,7 @@ import org.apache.commons.configuration.HierarchicalConfiguration;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.resolver.ConvertableValueResolver;
+import com.github.steveash.typedconfig.resolver.LongValueResolver;
 import com.github.steveash.typedconfig.resolver.SimpleValueResolverFactory;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 
@@ -32,13 +33,7 @@ public class LongValueResolverFactory extends SimpleValueResolverFactory {
     public ValueResolver makeForThis(final ConfigBinding binding, final HierarchicalConfiguration config,
                                            ConfigFactoryContext context) {
 
-        final String key = binding.getConfigKeyToLookup();
-        return new ConvertableValueResolver(Long.class, key) {
-            @Override
-            public Long resolve() {
-                return config.getLong(binding.getConfigKeyToLookup(), null);
-            }
-        };
+        return new LongResolver(binding.getConfigKeyToLookup(), config);
     }
 
     @Override
@@ -47,4 +42,23 @@ public class LongValueResolverFactory extends SimpleValueResolverFactory {
                 configBinding.getDataType().isAssignableFrom(Long.TYPE)
                 ;
     }
+
+    private static class LongResolver extends ConvertableValueResolver implements LongValueResolver {
+        private final HierarchicalConfiguration config;
+
+        private LongResolver(String key, HierarchicalConfiguration config) {
+            super(Long.class, key);
+            this.config = config;
+        }
+
+        @Override
+        public Long resolve() {
+            return config.getLong(configurationKeyToLookup(), null);
+        }
+
+        @Override
+        public long resolveLong() {
+            return resolve();
+        }
+    }
 }
@@ -16,6 +16,8 @@
 
 package com.github.steveash.typedconfig.validation;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
 import com.github.steveash.typedconfig.PropertyUtil;
 import com.github.steveash.typedconfig.exception.InvalidProxyException;
@@ -26,6 +28,7 @@ import javax.validation.Validator;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Steve Ash
@@ -33,6 +36,10 @@ import java.util.Set;
 public class BeanValidatorValidationStrategy implements ValidationStrategy {
 
     private final Validator validator;
+    // proxy methods are decorated every time a proxy is built so remember what we found on each method; the same
+    // Method instances come back from the binding plans and the keys are weak so we don't pin their class loaders
+    private final ConcurrentMap<Method, Optional<Annotation>> validationAnnotations =
+            new MapMaker().weakKeys().makeMap();
 
     public BeanValidatorValidationStrategy(Validator validator) {
         this.validator = validator;
@@ -70,6 +77,15 @@ public class BeanValidatorValidationStrategy implements ValidationStrategy {
     }
 
     private Annotation getFirstValidationAnnotationOrNull(Method method) {
+        Optional<Annotation> found = validationAnnotations.get(method);
+        if (found == null) {
+            found = Optional.fromNullable(findFirstValidationAnnotationOrNull(method));
+            validationAnnotations.put(method, found);
+        }
+        return found.orNull();
+    }
+
+    private Annotation findFirstValidationAnnotationOrNull(Method method) {
         Set<Annotation> checkedAnnotations = Sets.newHashSet();
         for (Annotation a : method.getDeclaredAnnotations()) {
             if (isValidationAnnotation(a, checkedAnnotations)) {
@@ -40,17 +40,36 @@ public class ValidatorResolverDecorator extends ForwardingValueResolver {
         this.validator = validator;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public Object resolve() {
         Object o = delegate.resolve();
+        validate(validator, clazz, method, delegate.configurationKeyToLookup(), o);
+        return o;
+    }
+
+    public Class getValidatedClass() {
+        return clazz;
+    }
+
+    public String getPropertyName() {
+        return method;
+    }
+
+    public Validator getValidator() {
+        return validator;
+    }
+
+    /**
+     * Throws a ConstraintViolationException if the value fails the constraints on the property
+     */
+    @SuppressWarnings("unchecked")
+    public static void validate(Validator validator, Class clazz, String method, String configKey, Object o) {
         Set<ConstraintViolation<?>> constraintViolations = validator.validateValue(clazz, method, o);
         if (constraintViolations.size() > 0) {
             throw new ConstraintViolationException("The configuration method '" + method + "' on " + clazz.getName() +
-                    " which reads the configuration key [" + delegate.configurationKeyToLookup() + "] returned value [" +
+                    " which reads the configuration key [" + configKey + "] returned value [" +
                     (o == null ? "null" : o.toString()) + "] which failed the validation constraints: " +
                     constraintViolations.toString(), constraintViolations);
         }
-        return o;
     }
 }
@@ -18,10 +18,17 @@ package com.github.steveash.typedconfig;
 
 import com.github.steveash.typedconfig.ConfigFactoryContext;
 import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.annotation.ConfigProxy;
 import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.tree.DefaultExpressionEngine;
 import org.junit.Test;
 
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Steve Ash
@@ -34,8 +41,80 @@ public class ConfigProxyFactoryTest {
 
     }
 
+    static interface Simple {
+        int getA();
+    }
+
+    // public so that java 8 can generate a proxy class for it in a child of the isolated loader
+    public static interface Exported {
+        int getA();
+    }
+
+    @ConfigProxy(basekey = "outer")
+    static interface Based {
+        int getA();
+    }
+
     @Test
     public void shouldBuildDefaultWithoutException() throws Exception {
         ConfigProxyFactory.getDefault().make(Proxy.class, mock(HierarchicalConfiguration.class));
     }
+
+    @Test
+    public void shouldReuseBindingPlanAcrossProxies() throws Exception {
+        ConfigProxyFactory factory = ConfigProxyFactory.builder().build();
+        HierarchicalConfiguration config1 = mock(HierarchicalConfiguration.class);
+        HierarchicalConfiguration config2 = mock(HierarchicalConfiguration.class);
+        when(config1.getInteger("a", null)).thenReturn(1);
+        when(config2.getInteger("a", null)).thenReturn(2);
+
+        assertEquals(1, factory.make(Simple.class, config1).getA());
+        assertEquals(2, factory.make(Simple.class, config2).getA());
+        assertEquals(1, factory.getBindingPlanStats().missCount());
+        assertEquals(1, factory.getBindingPlanStats().hitCount());
+    }
+
+    @Test
+    public void shouldNotReuseBindingPlanAfterTheDelimiterChanges() throws Exception {
+        ConfigProxyFactory factory = ConfigProxyFactory.builder().build();
+        DefaultExpressionEngine engine = new DefaultExpressionEngine();
+        HierarchicalConfiguration config1 = new HierarchicalConfiguration();
+        config1.setExpressionEngine(engine);
+        config1.addProperty("outer.a", "1");
+        assertEquals(1, factory.make(Based.class, config1).getA());
+
+        engine.setPropertyDelimiter("/");
+        HierarchicalConfiguration config2 = new HierarchicalConfiguration();
+        config2.setExpressionEngine(engine);
+        config2.addProperty("outer/a", "2");
+        assertEquals(2, factory.make(Based.class, config2).getA());
+        assertEquals(2, factory.getBindingPlanStats().missCount());
+
+        HierarchicalConfiguration config3 = new HierarchicalConfiguration();
+        config3.setExpressionEngine(new DefaultExpressionEngine());
+        config3.addProperty("outer.a", "3");
+        assertEquals(3, factory.make(Based.class, config3).getA());
+        assertEquals(1, factory.getBindingPlanStats().hitCount());
+    }
+
+    @Test
+    public void shouldNotPinTheInterfaceClassLoader() throws Exception {
+        ConfigProxyFactory factory = ConfigProxyFactory.builder().generatedProxies().build();
+        WeakReference<ClassLoader> loader = makeProxyInThrowawayLoader(factory);
+        IsolatingClassLoader.collect(loader);
+        assertNull(loader.get());
+        assertEquals(1, factory.getBindingPlanStats().missCount()); // the factory outlives the loader
+    }
+
+    private static WeakReference<ClassLoader> makeProxyInThrowawayLoader(ConfigProxyFactory factory)
+            throws Exception {
+        ClassLoader loader = new IsolatingClassLoader(ConfigProxyFactoryTest.class.getName());
+        Class<?> interfaze = loader.loadClass(Exported.class.getName());
+        HierarchicalConfiguration config = new HierarchicalConfiguration();
+        config.addProperty("a", "4");
+
+        Object proxy = factory.make(interfaze, config);
+        assertEquals(4, interfaze.getMethod("getA").invoke(proxy));
+        return new WeakReference<ClassLoader>(loader);
+    }
 }
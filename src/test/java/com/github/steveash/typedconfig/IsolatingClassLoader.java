@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+
+/**
+ * Defines its own copies of the named classes and their nested classes (from the test class path) so that those
+ * copies, and this loader, can be collected independently of the test; everything else is loaded by the test's loader
+ *
+ * @author Steve Ash
+ */
+public class IsolatingClassLoader extends ClassLoader {
+
+    private final ImmutableSet<String> isolatedNames;
+
+    public IsolatingClassLoader(String... isolatedNames) {
+        super(IsolatingClassLoader.class.getClassLoader());
+        this.isolatedNames = ImmutableSet.copyOf(isolatedNames);
+    }
+
+    /**
+     * Runs the collector until the reference is cleared or it has had a reasonable number of chances to
+     */
+    public static void collect(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    private boolean isIsolated(String name) {
+        int nestedStart = name.indexOf('$');
+        return isolatedNames.contains(nestedStart < 0 ? name : name.substring(0, nestedStart));
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isIsolated(name))
+            return super.loadClass(name, resolve);
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded != null)
+                return loaded;
+            try {
+                InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class");
+                if (in == null)
+                    throw new ClassNotFoundException(name);
+                try {
+                    byte[] bytes = ByteStreams.toByteArray(in);
+                    return defineClass(name, bytes, 0, bytes.length);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
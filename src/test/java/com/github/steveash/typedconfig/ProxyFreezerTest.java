@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig;
+
+import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.annotation.Index;
+import com.github.steveash.typedconfig.annotation.MapKey;
+import com.github.steveash.typedconfig.exception.RequiredConfigurationKeyNotPresentException;
+import com.github.steveash.typedconfig.resolver.InstanceValueResolver;
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Steve Ash
+ */
+public class ProxyFreezerTest {
+
+    public static interface Item {
+        String getName();
+
+        int getValue();
+    }
+
+    public static interface Root {
+        int getA();
+
+        @Config(options = {})
+        String getMissing();
+
+        Item getMain();
+
+        List<Item> getItems();
+
+        Set<String> getTags();
+
+        @MapKey(value = "name", required = true)
+        Map<String, Item> getItemsByName();
+
+        @Index("name")
+        IndexedList<Item> getIndexedItems();
+
+        Stream<Integer> getNumbers();
+
+        int[] getNumbersArray();
+    }
+
+    public static interface Many {
+        List<Item> getItems();
+    }
+
+    private static final String xml = "<config><a>42</a>" +
+            "<main><name>main</name><value>0</value></main>" +
+            "<items><name>one</name><value>1</value></items>" +
+            "<items><name>two</name><value>2</value></items>" +
+            "<tags>x</tags><tags>y</tags>" +
+            "<itemsByName><name>one</name><value>1</value></itemsByName>" +
+            "<indexedItems><name>one</name><value>1</value></indexedItems>" +
+            "<numbers>1</numbers><numbers>2</numbers>" +
+            "<numbersArray>3</numbersArray><numbersArray>4</numbersArray>" +
+            "</config>";
+
+    private XMLConfiguration config;
+    private ConfigProxyFactory factory;
+    private Root live;
+
+    @Before
+    public void setUp() throws Exception {
+        config = new XMLConfiguration();
+        config.load(new StringReader(xml));
+        factory = ConfigProxyFactory.getDefault();
+        live = factory.make(Root.class, (HierarchicalConfiguration) config);
+    }
+
+    @Test
+    public void shouldReturnTheSameValuesAsTheLiveProxy() throws Exception {
+        Root frozen = factory.freeze(live);
+
+        assertEquals(42, frozen.getA());
+        assertEquals(null, frozen.getMissing());
+        assertEquals("main", frozen.getMain().getName());
+        assertEquals(2, frozen.getItems().get(1).getValue());
+        assertEquals(live.getTags(), frozen.getTags());
+        assertEquals(1, frozen.getItemsByName().get("one").getValue());
+        assertEquals(1, frozen.getIndexedItems().findBy("name", "one").getValue());
+        assertEquals(ImmutableList.of(1, 2), frozen.getNumbers().collect(Collectors.toList()));
+        assertEquals(ImmutableList.of(1, 2), frozen.getNumbers().collect(Collectors.toList()));
+        assertArrayEquals(new int[]{3, 4}, frozen.getNumbersArray());
+        assertNotSame(frozen.getNumbersArray(), frozen.getNumbersArray());
+
+        // streams and arrays don't have value equality so compare the proxies without them
+        assertEquals(live.getMain().hashCode(), frozen.getMain().hashCode());
+        assertEquals(live.getMain().toString(), frozen.getMain().toString());
+        assertTrue(frozen.getMain().equals(live.getMain()));
+        assertTrue(live.getMain().equals(frozen.getMain()));
+        assertEquals(frozen.hashCode(), frozen.hashCode());
+    }
+
+    @Test
+    public void shouldKeepRequiredMapKeys() throws Exception {
+        Root frozen = factory.freeze(live);
+        try {
+            frozen.getItemsByName().get("nope");
+            fail();
+        } catch (RequiredConfigurationKeyNotPresentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldOnlyHoldConstantResolvers() throws Exception {
+        Root frozen = factory.freeze(live);
+        assertConstantResolvers((ProxiedConfiguration) frozen);
+        assertConstantResolvers((ProxiedConfiguration) frozen.getMain());
+        assertConstantResolvers((ProxiedConfiguration) frozen.getItems().get(0));
+        assertSame(frozen.getMain(), frozen.getMain());
+    }
+
+    @Test
+    public void shouldNotSeeLaterChanges() throws Exception {
+        Root frozen = factory.freeze(live);
+        config.setProperty("a", "43");
+        config.setProperty("main.name", "changed");
+
+        assertEquals(43, live.getA());
+        assertEquals("changed", live.getMain().getName());
+        assertEquals(42, frozen.getA());
+        assertEquals("main", frozen.getMain().getName());
+    }
+
+    @Test
+    public void shouldFreezeLargeContainersInOrder() throws Exception {
+        HierarchicalConfiguration large = new HierarchicalConfiguration();
+        for (int i = 0; i < 200; i++) {
+            large.addProperty("items(" + i + ").name", "item" + i);
+            large.addProperty("items(" + i + ").value", String.valueOf(i));
+        }
+        Many frozen = factory.freeze(factory.make(Many.class, large));
+        List<Item> items = frozen.getItems();
+        assertEquals(200, items.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, items.get(i).getValue());
+            assertConstantResolvers((ProxiedConfiguration) items.get(i));
+        }
+    }
+
+    private static void assertConstantResolvers(ProxiedConfiguration proxy) {
+        for (ValueResolver resolver : proxy.getResolvers().values()) {
+            assertTrue(resolver instanceof InstanceValueResolver);
+        }
+    }
+}
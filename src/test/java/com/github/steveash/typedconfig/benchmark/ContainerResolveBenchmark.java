@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.benchmark;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.annotation.MapKey;
+import com.google.common.collect.ImmutableSortedSet;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures uncached getters that return containers; every call reads and converts the values again so this is
+ * mostly the per resolve overhead of the container resolvers.  Run the main method (from the test classpath)
+ *
+ * @author Steve Ash
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerResolveBenchmark {
+
+    public static interface Item {
+        String getName();
+
+        int getValue();
+    }
+
+    public static interface Containers {
+        List<Integer> getNumbers();
+
+        Set<String> getNames();
+
+        ImmutableSortedSet<String> getSortedNames();
+
+        @MapKey("name")
+        Map<String, Item> getItems();
+    }
+
+    private static final String xml = "<config>" +
+            "<numbers>1</numbers><numbers>2</numbers><numbers>3</numbers><numbers>4</numbers>" +
+            "<names>a</names><names>b</names><names>c</names>" +
+            "<sortedNames>z</sortedNames><sortedNames>y</sortedNames><sortedNames>x</sortedNames>" +
+            "<items><name>one</name><value>1</value></items>" +
+            "<items><name>two</name><value>2</value></items>" +
+            "</config>";
+
+    private Containers containers;
+
+    @Setup
+    public void setUp() throws Exception {
+        XMLConfiguration config = new XMLConfiguration();
+        config.load(new StringReader(xml));
+        containers = ConfigProxyFactory.getDefault().make(Containers.class, (HierarchicalConfiguration) config);
+    }
+
+    @Benchmark
+    public Object listOfIntegers() {
+        return containers.getNumbers();
+    }
+
+    @Benchmark
+    public Object setOfStrings() {
+        return containers.getNames();
+    }
+
+    @Benchmark
+    public Object immutableSortedSet() {
+        return containers.getSortedNames();
+    }
+
+    @Benchmark
+    public Object mapOfNested() {
+        return containers.getItems();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ContainerResolveBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
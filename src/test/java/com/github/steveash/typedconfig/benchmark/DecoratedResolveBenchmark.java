@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.benchmark;
+
+import com.github.steveash.typedconfig.defaultvalue.DefaultGivenValueResolverDecorator;
+import com.github.steveash.typedconfig.defaultvalue.DefaultLookupValueResolverDecorator;
+import com.github.steveash.typedconfig.defaultvalue.RequiredValueResolverDecorator;
+import com.github.steveash.typedconfig.resolver.FusedValueResolver;
+import com.github.steveash.typedconfig.resolver.InstanceValueResolver;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.github.steveash.typedconfig.validation.ValidatorResolverDecorator;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.validation.Validation;
+import javax.validation.constraints.Min;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the stack of default, required and validation decorators with the single fused resolver that replaces
+ * it; the underlying key is missing so every layer does its work.  Run the main method (from the test classpath)
+ *
+ * @author Steve Ash
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecoratedResolveBenchmark {
+
+    public static interface Knobs {
+        @Min(1)
+        int getThreads();
+    }
+
+    private ValueResolver layered;
+    private ValueResolver fused;
+    // bean validation costs much more than the decorators so also measure the chain without it
+    private ValueResolver layeredUnvalidated;
+    private ValueResolver fusedUnvalidated;
+
+    @Setup
+    public void setUp() throws Exception {
+        HierarchicalConfiguration config = new XMLConfiguration();
+        ValueResolver missing = new InstanceValueResolver(null) {
+            @Override
+            public String configurationKeyToLookup() {
+                return "threads";
+            }
+        };
+        ValueResolver resolver = new DefaultLookupValueResolverDecorator(missing, new InstanceValueResolver(null));
+        resolver = new DefaultGivenValueResolverDecorator(resolver, (Object) 10);
+        resolver = new RequiredValueResolverDecorator(resolver, config);
+        layeredUnvalidated = resolver;
+        fusedUnvalidated = FusedValueResolver.fuse(resolver);
+        layered = new ValidatorResolverDecorator(resolver, Knobs.class, "threads",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        fused = FusedValueResolver.fuse(layered);
+    }
+
+    @Benchmark
+    public Object layeredChain() {
+        return layered.resolve();
+    }
+
+    @Benchmark
+    public Object fusedChain() {
+        return fused.resolve();
+    }
+
+    @Benchmark
+    public Object layeredChainWithoutValidation() {
+        return layeredUnvalidated.resolve();
+    }
+
+    @Benchmark
+    public Object fusedChainWithoutValidation() {
+        return fusedUnvalidated.resolve();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(DecoratedResolveBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
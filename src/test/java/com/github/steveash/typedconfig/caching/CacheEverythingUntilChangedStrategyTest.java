@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.github.steveash.typedconfig.resolver.VersionedCachingValueResolver;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Steve Ash
+ */
+public class CacheEverythingUntilChangedStrategyTest {
+
+    public static interface Proxy {
+        int getA();
+
+        Nested getNested();
+    }
+
+    public static interface Nested {
+        String getB();
+    }
+
+    @Test
+    public void shouldOnlyRecomputeAfterVersionChanges() throws Exception {
+        ValueResolver delegate = mock(ValueResolver.class);
+        when(delegate.resolve()).thenReturn("first", "second");
+        AtomicLong version = new AtomicLong();
+        VersionedCachingValueResolver resolver = new VersionedCachingValueResolver(delegate, version);
+
+        assertEquals("first", resolver.resolve());
+        assertEquals("first", resolver.resolve());
+        verify(delegate, times(1)).resolve();
+
+        version.incrementAndGet();
+        assertEquals("second", resolver.resolve());
+        assertEquals("second", resolver.resolve());
+        verify(delegate, times(2)).resolve();
+    }
+
+    @Test
+    public void shouldSeeChangesToRootAndSubnodes() throws Exception {
+        HierarchicalConfiguration config = new HierarchicalConfiguration();
+        config.setProperty("a", 42);
+        config.setProperty("nested.b", "steve");
+        Proxy proxy = ConfigProxyFactory.builder().cacheEverythingUntilChanged().build().make(Proxy.class, config);
+
+        assertEquals(42, proxy.getA());
+        assertEquals("steve", proxy.getNested().getB());
+
+        config.setProperty("a", 43);
+        config.setProperty("nested.b", "jonny");
+        assertEquals(43, proxy.getA());
+        assertEquals("jonny", proxy.getNested().getB());
+
+        config.configurationAt("nested").setProperty("b", "ash");
+        assertEquals("ash", proxy.getNested().getB());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.ConfigFactoryContext;
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Steve Ash
+ */
+public class CacheProxiesAndContainersStrategyTest {
+
+    private XMLConfiguration xmlConfig;
+    private Proxy proxy;
+
+    public static interface Proxy {
+        int getA();
+
+        @Config("child")
+        List<Child> getChildren();
+    }
+
+    public static interface Child {
+        String getName();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        xmlConfig = new XMLConfiguration("nestedConfig3.xml");
+        proxy = ConfigProxyFactory.builder().cacheProxiesAndContainers().build().make(Proxy.class, xmlConfig);
+    }
+
+    @Test
+    public void shouldReuseContainerUntilItsSubtreeChanges() throws Exception {
+        List<Child> children = proxy.getChildren();
+        assertSame(children, proxy.getChildren());
+
+        xmlConfig.setProperty("a", 43);
+        assertEquals(43, proxy.getA());
+        assertSame(children, proxy.getChildren());
+
+        xmlConfig.addProperty("child(-1).name", "jim");
+        List<Child> rebuilt = proxy.getChildren();
+        assertNotSame(children, rebuilt);
+        assertEquals(3, rebuilt.size());
+        assertEquals("jim", rebuilt.get(2).getName());
+    }
+
+    @Test
+    public void shouldInvalidateOnAnyChangeWhenDecoratedWithoutTheConfig() throws Exception {
+        // a custom strategy written against the original three argument method
+        final CacheStrategy delegate = new CacheProxiesAndContainersStrategy();
+        CacheStrategy custom = new CacheStrategy() {
+            @Override
+            public ValueResolver decorateForCaching(ValueResolver resolver, ConfigBinding binding,
+                                                    ConfigFactoryContext context) {
+                return delegate.decorateForCaching(resolver, binding, context);
+            }
+        };
+        proxy = ConfigProxyFactory.builder().withCustomCacheStrategy(custom).build().make(Proxy.class, xmlConfig);
+        List<Child> children = proxy.getChildren();
+        assertSame(children, proxy.getChildren());
+
+        xmlConfig.setProperty("a", 43);
+        assertNotSame(children, proxy.getChildren());
+    }
+
+    @Test
+    public void shouldUpdateHeldElementReferences() throws Exception {
+        Child first = proxy.getChildren().get(0);
+        assertEquals("steve", first.getName());
+
+        xmlConfig.setProperty("child(0).name", "bubba");
+
+        assertEquals("bubba", first.getName());
+        assertEquals("bubba", proxy.getChildren().get(0).getName());
+    }
+}
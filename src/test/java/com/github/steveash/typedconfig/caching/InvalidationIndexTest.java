@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.github.steveash.typedconfig.ConfigBinding;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.SubnodeConfiguration;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.event.ConfigurationListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Steve Ash
+ */
+public class InvalidationIndexTest {
+
+    private HierarchicalConfiguration config;
+    private InvalidationIndex index;
+    private Invalidatable atA;
+    private Invalidatable atB;
+    private Invalidatable atNested;
+    private Invalidatable atNestedChild;
+    private Invalidatable atRoot;
+
+    @Before
+    public void setUp() throws Exception {
+        config = new HierarchicalConfiguration();
+        config.setProperty("a", 1);
+        config.setProperty("b", 2);
+        config.setProperty("nested.child", 3);
+        index = new InvalidationIndex();
+        config.addConfigurationListener(new ConfigurationListener() {
+            @Override
+            public void configurationChanged(ConfigurationEvent event) {
+                if (!event.isBeforeUpdate())
+                    index.invalidate(event);
+            }
+        });
+
+        atA = register("a", config);
+        atB = register("b", config);
+        atNested = register("nested", config);
+        SubnodeConfiguration sub = config.configurationAt("nested", true);
+        atNestedChild = register("child", sub);
+        atRoot = register("$TOSTRING$", config);
+    }
+
+    private Invalidatable register(String key, HierarchicalConfiguration c) {
+        Invalidatable target = mock(Invalidatable.class);
+        index.register(target, ConfigBinding.makeShimForKey(key), c);
+        return target;
+    }
+
+    @Test
+    public void shouldOnlyInvalidateTheChangedKeyAndItsAncestors() throws Exception {
+        config.setProperty("a", 43);
+
+        verify(atA).invalidate();
+        verify(atRoot).invalidate();
+        verify(atB, never()).invalidate();
+        verify(atNested, never()).invalidate();
+        verify(atNestedChild, never()).invalidate();
+    }
+
+    @Test
+    public void shouldInvalidateSubtreeOfChangedKey() throws Exception {
+        config.clearTree("nested");
+
+        verify(atNested).invalidate();
+        verify(atNestedChild).invalidate();
+        verify(atA, never()).invalidate();
+    }
+
+    @Test
+    public void shouldInvalidateEverythingOnClear() throws Exception {
+        config.clear();
+
+        verify(atA).invalidate();
+        verify(atB).invalidate();
+        verify(atNestedChild).invalidate();
+    }
+
+    @Test
+    public void shouldTreatUnindexedEventKeyAsEveryIndex() throws Exception {
+        config.addProperty("list.item", "x");
+        config.addProperty("list.item", "y");
+        Invalidatable atSecond = register("list.item(1)", config);
+        Invalidatable atFirst = register("list.item(0)", config);
+
+        config.setProperty("list.item(0)", "z");
+        verify(atFirst).invalidate();
+        verify(atSecond, never()).invalidate();
+
+        config.setProperty("list.item", "w");
+        verify(atSecond).invalidate();
+    }
+
+    @Test
+    public void shouldDropCollectedTargets() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            index.register(new Invalidatable() {
+                @Override
+                public void invalidate() {
+                }
+            }, ConfigBinding.makeShimForKey("a"), config);
+        }
+        for (int i = 0; i < 20 && index.getCollectedCount() < 100; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertTrue(index.getCollectedCount() > 0);
+        assertEquals(105 - index.getCollectedCount(), index.getLiveCount());
+        config.setProperty("a", 43);
+        verify(atA).invalidate();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.caching;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.annotation.CacheTtl;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Steve Ash
+ */
+public class TimedCacheStrategyTest {
+
+    public static interface Proxy {
+        int getA();
+
+        @CacheTtl(value = 1, unit = TimeUnit.MINUTES)
+        int getB();
+    }
+
+    private HierarchicalConfiguration config;
+    private FakeTicker ticker;
+
+    @Before
+    public void setUp() throws Exception {
+        config = new HierarchicalConfiguration();
+        config.setProperty("a", 1);
+        config.setProperty("b", 1);
+        ticker = new FakeTicker();
+    }
+
+    @Test
+    public void shouldReadAgainAfterExpiring() throws Exception {
+        Proxy proxy = ConfigProxyFactory.builder()
+                .withCustomCacheStrategy(new ExpireAfterWriteCacheStrategy(10, TimeUnit.SECONDS, ticker))
+                .build().make(Proxy.class, config);
+        assertEquals(1, proxy.getA());
+        assertEquals(1, proxy.getB());
+
+        config.setProperty("a", 2);
+        config.setProperty("b", 2);
+        assertEquals(1, proxy.getA());
+
+        ticker.advance(10, TimeUnit.SECONDS);
+        assertEquals(2, proxy.getA());
+        assertEquals(1, proxy.getB()); // overridden to a minute
+
+        ticker.advance(1, TimeUnit.MINUTES);
+        assertEquals(2, proxy.getB());
+    }
+
+    @Test
+    public void shouldRefreshOnExecutorAndServeOldValueMeanwhile() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        Proxy proxy = ConfigProxyFactory.builder()
+                .withCustomCacheStrategy(new RefreshAfterWriteCacheStrategy(10, TimeUnit.SECONDS, executor, ticker))
+                .build().make(Proxy.class, config);
+        assertEquals(1, proxy.getA());
+
+        config.setProperty("a", 2);
+        ticker.advance(11, TimeUnit.SECONDS);
+        assertEquals(1, proxy.getA());
+        assertEquals(1, proxy.getA());
+        assertEquals(1, executor.tasks.size()); // only one refresh at a time
+
+        executor.runAll();
+        assertEquals(2, proxy.getA());
+    }
+
+    @Test
+    public void shouldWaitATtlBeforeRetryingAFailedRefresh() throws Exception {
+        QueuedExecutor executor = new QueuedExecutor();
+        Proxy proxy = ConfigProxyFactory.builder()
+                .withCustomCacheStrategy(new RefreshAfterWriteCacheStrategy(10, TimeUnit.SECONDS, executor, ticker))
+                .build().make(Proxy.class, config);
+        assertEquals(1, proxy.getA());
+
+        config.setProperty("a", "not a number");
+        ticker.advance(11, TimeUnit.SECONDS);
+        assertEquals(1, proxy.getA());
+        executor.runAll(); // fails and keeps the old value
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1, proxy.getA());
+        }
+        assertEquals(0, executor.tasks.size());
+
+        ticker.advance(10, TimeUnit.SECONDS);
+        assertEquals(1, proxy.getA());
+        assertEquals(1, executor.tasks.size());
+
+        config.setProperty("a", 3);
+        executor.runAll();
+        assertEquals(3, proxy.getA());
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos = 0;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long duration, TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+
+    private static class QueuedExecutor implements Executor {
+        private final List<Runnable> tasks = Lists.newArrayList();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+    }
+}
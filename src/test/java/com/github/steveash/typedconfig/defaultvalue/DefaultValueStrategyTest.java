@@ -24,12 +24,15 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import com.github.steveash.typedconfig.ConfigBinding;
 import com.github.steveash.typedconfig.ConfigFactoryContext;
+import com.github.steveash.typedconfig.ConfigProxyFactory;
 import com.github.steveash.typedconfig.ConfigProxyFactoryTest;
 import com.github.steveash.typedconfig.Option;
 import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.exception.InvalidConfigurationValueException;
 import com.github.steveash.typedconfig.exception.RequiredConfigurationKeyNotPresentException;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 
+import javax.validation.constraints.Size;
 import java.util.Arrays;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
@@ -40,6 +43,8 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -95,6 +100,9 @@ public class DefaultValueStrategyTest {
         String withDefaultValueAndDefaultLookup();
         @Config(defaultLookup = "some.lookup.thats.missing")
         String withDefaultLookupThatsMissing();
+        @Config(defaultValue = "way too long")
+        @Size(max = 3)
+        String getWithInvalidDefaultValue();
     }
 
     @Test
@@ -146,4 +154,71 @@ public class DefaultValueStrategyTest {
                         Proxy.class.getDeclaredMethod("withDefaultLookupThatsMissing")).resolve();
         fail();
     }
+
+    @Test
+    public void shouldReturnResolvedValueOverDefaults() throws Exception {
+        assertEquals("good1", strategy.decorateForDefaults(good1Resolver, config, binding, context, Proxy.class,
+                Proxy.class.getDeclaredMethod("withDefaultValue")).resolve());
+        assertEquals("good1", strategy.decorateForDefaults(good1Resolver, config, binding, context, Proxy.class,
+                Proxy.class.getDeclaredMethod("withDefaultLookup")).resolve());
+    }
+
+    static interface Defaulted {
+        @Config(defaultValue = "fallback")
+        String getGiven();
+
+        @Config(defaultLookup = "other")
+        String getLookedUp();
+
+        @Config(defaultValue = "7")
+        int getNumber();
+    }
+
+    // regression: both default decorators used to return null whenever the key *was* present
+    @Test
+    public void shouldPreferConfiguredValuesOverDefaultsOnRealProxies() throws Exception {
+        HierarchicalConfiguration real = new HierarchicalConfiguration();
+        real.addProperty("other", "from lookup");
+        Defaulted missing = ConfigProxyFactory.getDefault().make(Defaulted.class, real);
+        assertEquals("fallback", missing.getGiven());
+        assertEquals("from lookup", missing.getLookedUp());
+        assertEquals(7, missing.getNumber());
+
+        real.addProperty("given", "configured");
+        real.addProperty("lookedUp", "configured too");
+        real.addProperty("number", "42");
+        Defaulted present = ConfigProxyFactory.getDefault().make(Defaulted.class, real);
+        assertEquals("configured", present.getGiven());
+        assertEquals("configured too", present.getLookedUp());
+        assertEquals(42, present.getNumber());
+    }
+
+    @Test
+    public void shouldConvertDefaultValueOnceWhenDecorating() throws Exception {
+        ValueResolver resolver = strategy.decorateForDefaults(badResolver, config, binding, context, Proxy.class,
+                Proxy.class.getDeclaredMethod("withDefaultValue"));
+        verify(badResolver).convertDefaultValue("heresADefault");
+
+        resolver.resolve();
+        resolver.resolve();
+        verify(badResolver).convertDefaultValue("heresADefault");
+    }
+
+    @Test(expected = InvalidConfigurationValueException.class)
+    public void shouldFailWhenDecoratingIfDefaultCannotBeConverted() throws Exception {
+        when(badResolver.convertDefaultValue(anyString())).thenThrow(new NumberFormatException("bad"));
+        strategy.decorateForDefaults(badResolver, config, binding, context, Proxy.class,
+                Proxy.class.getDeclaredMethod("withDefaultValue"));
+    }
+
+    @Test
+    public void shouldFailWhenDecoratingIfDefaultFailsValidation() throws Exception {
+        try {
+            strategy.decorateForDefaults(badResolver, config, binding, context, Proxy.class,
+                    Proxy.class.getDeclaredMethod("getWithInvalidDefaultValue"));
+            fail();
+        } catch (InvalidConfigurationValueException e) {
+            verify(badResolver, never()).resolve();
+        }
+    }
 }
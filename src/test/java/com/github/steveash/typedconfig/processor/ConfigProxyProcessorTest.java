@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.processor;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.IsolatingClassLoader;
+import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.annotation.ConfigProxy;
+import com.github.steveash.typedconfig.proxy.JdkProxyStrategy;
+import com.github.steveash.typedconfig.proxy.PrecompiledProxyStrategy;
+import com.github.steveash.typedconfig.resolver.HashCodeResolver;
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
+import com.github.steveash.typedconfig.resolver.ToStringResolver;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The interfaces in here are compiled with the processor (as all of the tests are)
+ *
+ * @author Steve Ash
+ */
+public class ConfigProxyProcessorTest {
+
+    public static interface Parent {
+        String getInherited();
+    }
+
+    @ConfigProxy(basekey = "settings")
+    public static interface Settings extends Parent {
+        int getThreads();
+
+        @Config("max-wait")
+        long getMaxWaitMillis();
+
+        byte getSmall();
+
+        float getRatio();
+
+        boolean isEnabled();
+
+        List<Integer> getSizes();
+
+        Nested getNested();
+    }
+
+    @ConfigProxy
+    static interface Nested {
+        String getName();
+    }
+
+    public static interface Valued<T> {
+        T getValue();
+
+        List<T> getValues();
+
+        T valueOr(T fallback);
+    }
+
+    // the generated class has to implement the inherited methods with T filled in or it won't compile
+    @ConfigProxy(basekey = "settings")
+    public static interface StringValued extends Valued<String> {
+        int getThreads();
+    }
+
+    static interface NotAnnotated {
+        String getName();
+    }
+
+    private HierarchicalConfiguration config;
+
+    @Before
+    public void setUp() throws Exception {
+        config = new HierarchicalConfiguration();
+        config.addProperty("settings.threads", "4");
+        config.addProperty("settings.max-wait", "1500");
+        config.addProperty("settings.small", "7");
+        config.addProperty("settings.ratio", "0.5");
+        config.addProperty("settings.enabled", "true");
+        config.addProperty("settings.sizes", "1");
+        config.addProperty("settings.sizes", "2");
+        config.addProperty("settings.nested.name", "steve");
+        config.addProperty("name", "root");
+    }
+
+    @Test
+    public void shouldMakeProxiesFromTheGeneratedClass() throws Exception {
+        Settings settings = ConfigProxyFactory.getDefault().make(Settings.class, config);
+
+        assertEquals(PrecompiledProxyStrategy.generatedClassNameFor(Settings.class), settings.getClass().getName());
+        assertEquals(4, settings.getThreads());
+        assertEquals(1500L, settings.getMaxWaitMillis());
+        assertEquals(7, settings.getSmall());
+        assertEquals(0.5f, settings.getRatio(), 0.0f);
+        assertTrue(settings.isEnabled());
+        assertEquals(ImmutableList.of(1, 2), settings.getSizes());
+        assertEquals("steve", settings.getNested().getName());
+        assertEquals(PrecompiledProxyStrategy.generatedClassNameFor(Nested.class),
+                settings.getNested().getClass().getName());
+    }
+
+    @Test
+    public void shouldBehaveLikeJdkProxy() throws Exception {
+        Settings generated = ConfigProxyFactory.getDefault().make(Settings.class, config);
+        ImmutableMap<Method, ValueResolver> resolvers = ((ProxiedConfiguration) generated).getResolvers();
+        Settings jdk = new JdkProxyStrategy().makeProxy(Settings.class, resolvers,
+                new HashCodeResolver(Settings.class, resolvers), new ToStringResolver(Settings.class, resolvers));
+        assertTrue(Proxy.isProxyClass(jdk.getClass()));
+
+        assertTrue(generated.equals(jdk));
+        assertTrue(jdk.equals(generated));
+        assertEquals(jdk.hashCode(), generated.hashCode());
+        assertEquals(jdk.toString(), generated.toString());
+        try {
+            generated.getInherited();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected; only the declared methods are bound, the same as the jdk proxies
+        }
+    }
+
+    @Test
+    public void shouldGenerateKeyConstants() throws Exception {
+        assertEquals("settings", TypedConfig_ConfigProxyProcessorTest_Settings.BASE_KEY);
+        assertEquals("threads", TypedConfig_ConfigProxyProcessorTest_Settings.KEY_THREADS);
+        assertEquals("max-wait", TypedConfig_ConfigProxyProcessorTest_Settings.KEY_MAX_WAIT);
+        assertEquals("enabled", TypedConfig_ConfigProxyProcessorTest_Settings.KEY_ENABLED);
+    }
+
+    @Test
+    public void shouldImplementMethodsOfGenericSuperInterfaces() throws Exception {
+        StringValued valued = ConfigProxyFactory.getDefault().make(StringValued.class, config);
+
+        assertEquals(PrecompiledProxyStrategy.generatedClassNameFor(StringValued.class), valued.getClass().getName());
+        assertEquals(4, valued.getThreads());
+        assertEquals(String.class,
+                TypedConfig_ConfigProxyProcessorTest_StringValued.class.getMethod("getValue").getReturnType());
+        try {
+            valued.valueOr("x");
+            fail();
+        } catch (IllegalStateException e) {
+            // expected; inherited methods aren't bound
+        }
+    }
+
+    @Test
+    public void shouldFallBackWithoutAGeneratedClass() throws Exception {
+        NotAnnotated proxy = ConfigProxyFactory.getDefault().make(NotAnnotated.class, config);
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        assertEquals("root", proxy.getName());
+        assertFalse(proxy.getClass().getName().contains("TypedConfig_"));
+    }
+
+    @Test
+    public void shouldNotPinTheInterfaceClassLoader() throws Exception {
+        WeakReference<ClassLoader> loader = makeProxyInThrowawayLoader();
+        IsolatingClassLoader.collect(loader);
+        assertNull(loader.get());
+    }
+
+    private static WeakReference<ClassLoader> makeProxyInThrowawayLoader() throws Exception {
+        String generatedName = PrecompiledProxyStrategy.generatedClassNameFor(Nested.class);
+        ClassLoader loader = new IsolatingClassLoader(ConfigProxyProcessorTest.class.getName(), generatedName);
+        Class<?> interfaze = loader.loadClass(Nested.class.getName());
+        Method getName = interfaze.getDeclaredMethod("getName");
+        // not a mock; mockito would remember the invocation (and its stack) coming from the isolated classes
+        ValueResolver resolver = new ValueResolver() {
+            @Override
+            public Object resolve() {
+                return "steve";
+            }
+
+            @Override
+            public Object convertDefaultValue(String defaultValue) {
+                return defaultValue;
+            }
+
+            @Override
+            public String configurationKeyToLookup() {
+                return "name";
+            }
+        };
+        Object proxy = new PrecompiledProxyStrategy(new JdkProxyStrategy()).makeProxy(interfaze,
+                ImmutableMap.of(getName, resolver), resolver, resolver);
+        assertEquals(generatedName, proxy.getClass().getName());
+        getName.setAccessible(true); // Nested is package private and the copy is in a different runtime package
+        assertEquals("steve", getName.invoke(proxy));
+        return new WeakReference<ClassLoader>(loader);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.proxy;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.IsolatingClassLoader;
+import com.github.steveash.typedconfig.resolver.ProxiedConfiguration;
+import com.github.steveash.typedconfig.resolver.ValueResolver;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Steve Ash
+ */
+public class GeneratedClassProxyStrategyTest {
+
+    private ConfigProxyFactory generated;
+    private HierarchicalConfiguration config;
+
+    public static interface Child {
+        int getSome1();
+
+        String getSome2();
+
+        boolean isSome3();
+    }
+
+    static interface PackagePrivateChild {
+        int getSome1();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        config = mock(HierarchicalConfiguration.class);
+        when(config.getInteger("some1", null)).thenReturn(42);
+        when(config.getString("some2", null)).thenReturn("steve");
+        when(config.getBoolean("some3", null)).thenReturn(true);
+        generated = ConfigProxyFactory.builder().generatedProxies().build();
+    }
+
+    @Test
+    public void shouldReturnConfigValuesFromGeneratedClass() throws Exception {
+        Child c = generated.make(Child.class, config);
+        assertFalse(Proxy.isProxyClass(c.getClass()));
+        assertEquals(42, c.getSome1());
+        assertEquals("steve", c.getSome2());
+        assertTrue(c.isSome3());
+    }
+
+    @Test
+    public void shouldShareGeneratedClassAcrossInstances() throws Exception {
+        Child c1 = generated.make(Child.class, config);
+        Child c2 = ConfigProxyFactory.builder().generatedProxies().build().make(Child.class, config);
+        assertEquals(c1.getClass(), c2.getClass());
+    }
+
+    @Test
+    public void shouldBehaveLikeJdkProxy() throws Exception {
+        Child c1 = generated.make(Child.class, config);
+        Child c2 = ConfigProxyFactory.getDefault().make(Child.class, config);
+
+        assertTrue(c1.equals(c2));
+        assertTrue(c2.equals(c1));
+        assertEquals(c2.hashCode(), c1.hashCode());
+        assertEquals(c2.toString(), c1.toString());
+        assertEquals(Child.class, ((ProxiedConfiguration) c1).getInterfaceClass());
+        assertEquals(((ProxiedConfiguration) c2).getResolvers().keySet(),
+                ((ProxiedConfiguration) c1).getResolvers().keySet());
+    }
+
+    @Test
+    public void shouldWorkForNonPublicInterfaces() throws Exception {
+        PackagePrivateChild c = generated.make(PackagePrivateChild.class, config);
+        assertEquals(42, c.getSome1());
+    }
+
+    @Test
+    public void shouldNotPinTheInterfaceClassLoader() throws Exception {
+        WeakReference<ClassLoader> loader = makeProxyInThrowawayLoader();
+        IsolatingClassLoader.collect(loader);
+        assertNull(loader.get());
+    }
+
+    private static WeakReference<ClassLoader> makeProxyInThrowawayLoader() throws Exception {
+        ClassLoader loader = new IsolatingClassLoader(GeneratedClassProxyStrategyTest.class.getName());
+        Class<?> interfaze = loader.loadClass(Child.class.getName());
+        ImmutableMap.Builder<Method, ValueResolver> resolvers = ImmutableMap.builder();
+        for (Method method : interfaze.getDeclaredMethods()) {
+            resolvers.put(method, mock(ValueResolver.class));
+        }
+        Object proxy = new GeneratedClassProxyStrategy().makeProxy(interfaze, resolvers.build(),
+                mock(ValueResolver.class), mock(ValueResolver.class));
+        assertFalse(Proxy.isProxyClass(proxy.getClass()));
+        return new WeakReference<ClassLoader>(loader);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.caching.RecomputeMode;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Steve Ash
+ */
+public class CachingValueResolverTest {
+
+    public static interface Primitives {
+        int getA();
+
+        long getB();
+
+        double getC();
+
+        boolean isD();
+
+        Integer getE();
+    }
+
+    @Test
+    public void shouldResolvePrimitivesOnceAndServeThemUnboxed() throws Exception {
+        ValueResolver delegate = mock(ValueResolver.class);
+        when(delegate.resolve()).thenReturn(42);
+        CachingValueResolver resolver = new CachingValueResolver(delegate);
+
+        assertEquals(42, PrimitiveValueResolvers.resolveInt(resolver));
+        assertEquals(42, PrimitiveValueResolvers.resolveInt(resolver));
+        assertEquals(42, resolver.resolve());
+        verify(delegate, times(1)).resolve();
+    }
+
+    @Test
+    public void shouldResolveEveryPrimitiveKind() throws Exception {
+        assertEquals(5L, new CachingValueResolver(new InstanceValueResolver(5L)).resolveLong());
+        assertEquals(2.5, new CachingValueResolver(new InstanceValueResolver(2.5)).resolveDouble(), 0.0);
+        assertTrue(new CachingValueResolver(new InstanceValueResolver(true)).resolveBoolean());
+    }
+
+    @Test
+    public void shouldReturnPrimitivesThroughCachedGeneratedProxy() throws Exception {
+        HierarchicalConfiguration config = mock(HierarchicalConfiguration.class);
+        when(config.getInteger("a", null)).thenReturn(1);
+        when(config.getLong("b", null)).thenReturn(2L);
+        when(config.getDouble("c", null)).thenReturn(3.0);
+        when(config.getBoolean("d", null)).thenReturn(true);
+        when(config.getInteger("e", null)).thenReturn(5);
+
+        Primitives p = ConfigProxyFactory.builder()
+                .generatedProxies()
+                .cacheEverythingForever()
+                .build()
+                .make(Primitives.class, config);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(1, p.getA());
+            assertEquals(2L, p.getB());
+            assertEquals(3.0, p.getC(), 0.0);
+            assertTrue(p.isD());
+            assertEquals(Integer.valueOf(5), p.getE());
+        }
+        verify(config, times(1)).getInteger("a", null);
+    }
+
+    @Test
+    public void shouldOnlyComputeOnceWhenSingleFlight() throws Exception {
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger computeCount = new AtomicInteger();
+        final CachingValueResolver resolver = new CachingValueResolver(new InstanceValueResolver(null) {
+            @Override
+            public Object resolve() {
+                computeCount.incrementAndGet();
+                computing.countDown();
+                awaitQuietly(release);
+                return "value";
+            }
+        }, RecomputeMode.SINGLE_FLIGHT);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Object> first = executor.submit(resolveWith(resolver));
+            computing.await();
+            Future<Object> second = executor.submit(resolveWith(resolver));
+            Future<Object> third = executor.submit(resolveWith(resolver));
+            release.countDown();
+
+            assertEquals("value", first.get(5, TimeUnit.SECONDS));
+            assertEquals("value", second.get(5, TimeUnit.SECONDS));
+            assertEquals("value", third.get(5, TimeUnit.SECONDS));
+            assertEquals(1, computeCount.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldServePreviousValueWhileRecomputing() throws Exception {
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger computeCount = new AtomicInteger();
+        final CachingValueResolver resolver = new CachingValueResolver(new InstanceValueResolver(null) {
+            @Override
+            public Object resolve() {
+                if (computeCount.incrementAndGet() == 1)
+                    return "old";
+                computing.countDown();
+                awaitQuietly(release);
+                return "new";
+            }
+        }, RecomputeMode.STALE_WHILE_REVALIDATE);
+        assertEquals("old", resolver.resolve());
+        resolver.invalidate();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> revalidating = executor.submit(resolveWith(resolver));
+            computing.await();
+            assertEquals("old", resolver.resolve());
+            release.countDown();
+
+            assertEquals("new", revalidating.get(5, TimeUnit.SECONDS));
+            assertEquals("new", resolver.resolve());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Callable<Object> resolveWith(final ValueResolver resolver) {
+        return new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return resolver.resolve();
+            }
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
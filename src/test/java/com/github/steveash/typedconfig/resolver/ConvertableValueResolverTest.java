@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Steve Ash
+ */
+public class ConvertableValueResolverTest {
+
+    public static interface Proxy {
+        BigDecimal getAmount();
+    }
+
+    private static class CountingResolver extends ConvertableValueResolver {
+        private final AtomicInteger conversions = new AtomicInteger();
+        private String raw;
+
+        private CountingResolver(boolean memoize) {
+            super(Integer.class, "a", memoize);
+        }
+
+        @Override
+        public Object resolve() {
+            return convertRaw(raw);
+        }
+
+        @Override
+        protected Object convert(String raw) {
+            conversions.incrementAndGet();
+            return super.convert(raw);
+        }
+    }
+
+    @Test
+    public void shouldSkipConversionForSameRawInstance() throws Exception {
+        CountingResolver resolver = new CountingResolver(true);
+        resolver.raw = "42";
+        assertEquals(42, resolver.resolve());
+        assertEquals(42, resolver.resolve());
+        assertEquals(1, resolver.conversions.get());
+
+        resolver.raw = new String("42");
+        assertEquals(42, resolver.resolve());
+        assertEquals(2, resolver.conversions.get());
+    }
+
+    @Test
+    public void shouldMemoizeDefaultValueConversions() throws Exception {
+        CountingResolver resolver = new CountingResolver(true);
+        String one = "1";
+        String two = "2";
+        assertEquals(1, resolver.convertDefaultValue(one));
+        assertEquals(2, resolver.convertDefaultValue(two));
+        assertEquals(1, resolver.convertDefaultValue(one));
+        assertEquals(2, resolver.conversions.get());
+    }
+
+    @Test
+    public void shouldAlwaysConvertWhenNotMemoizing() throws Exception {
+        CountingResolver resolver = new CountingResolver(false);
+        resolver.raw = "42";
+        resolver.resolve();
+        resolver.resolve();
+        assertEquals(2, resolver.conversions.get());
+    }
+
+    @Test
+    public void shouldReuseBigDecimalForUnchangedValue() throws Exception {
+        HierarchicalConfiguration config = mock(HierarchicalConfiguration.class);
+        when(config.getString("amount", null)).thenReturn("12.50");
+        Proxy proxy = ConfigProxyFactory.getDefault().make(Proxy.class, config);
+
+        assertEquals(new BigDecimal("12.50"), proxy.getAmount());
+        assertSame(proxy.getAmount(), proxy.getAmount());
+    }
+}
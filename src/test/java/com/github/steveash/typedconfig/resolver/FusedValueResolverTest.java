@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver;
+
+import com.github.steveash.typedconfig.defaultvalue.DefaultGivenValueResolverDecorator;
+import com.github.steveash.typedconfig.defaultvalue.DefaultLookupValueResolverDecorator;
+import com.github.steveash.typedconfig.defaultvalue.RequiredValueResolverDecorator;
+import com.github.steveash.typedconfig.exception.RequiredConfigurationKeyNotPresentException;
+import com.github.steveash.typedconfig.validation.ValidatorResolverDecorator;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.junit.Test;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.Size;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Steve Ash
+ */
+public class FusedValueResolverTest {
+
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    public static interface Proxy {
+        @Size(max = 5)
+        String getValue();
+    }
+
+    @Test
+    public void shouldResolveLikeTheLayeredChain() throws Exception {
+        Object[][] cases = {
+                // value, lookup, expected
+                {"value", "look", "value"},
+                {null, "look", "look"},
+                {null, null, "given"},
+        };
+        for (Object[] c : cases) {
+            ValueResolver layered = layered(resolverFor(c[0]), resolverFor(c[1]), "given", true);
+            ValueResolver fused = FusedValueResolver.fuse(layered);
+            assertTrue(fused instanceof FusedValueResolver);
+            assertEquals(c[2], layered.resolve());
+            assertEquals(c[2], fused.resolve());
+        }
+    }
+
+    @Test
+    public void shouldThrowWhenRequiredValueIsMissing() throws Exception {
+        ValueResolver fused = FusedValueResolver.fuse(new RequiredValueResolverDecorator(resolverFor(null),
+                mock(HierarchicalConfiguration.class)));
+        try {
+            fused.resolve();
+            fail();
+        } catch (RequiredConfigurationKeyNotPresentException e) {
+            assertTrue(e.getMessage().contains("aKey"));
+        }
+    }
+
+    @Test(expected = ConstraintViolationException.class)
+    public void shouldValidateTheResolvedValue() throws Exception {
+        FusedValueResolver.fuse(layered(resolverFor("too long"), null, null, false)).resolve();
+    }
+
+    @Test
+    public void shouldLeaveUnknownChainsAlone() throws Exception {
+        ValueResolver base = resolverFor("value");
+        assertSame(base, FusedValueResolver.fuse(base));
+
+        ValueResolver custom = new ForwardingValueResolver(new RequiredValueResolverDecorator(base,
+                mock(HierarchicalConfiguration.class))) { };
+        assertSame(custom, FusedValueResolver.fuse(custom));
+    }
+
+    @Test
+    public void shouldUnboxPrimitives() throws Exception {
+        ValueResolver fused = FusedValueResolver.fuse(new DefaultGivenValueResolverDecorator(resolverFor(null),
+                (Object) 42));
+        assertEquals(42, PrimitiveValueResolvers.resolveInt(fused));
+    }
+
+    private static ValueResolver layered(ValueResolver base, ValueResolver lookup, Object given, boolean required) {
+        ValueResolver resolver = base;
+        if (lookup != null)
+            resolver = new DefaultLookupValueResolverDecorator(resolver, lookup);
+        if (given != null)
+            resolver = new DefaultGivenValueResolverDecorator(resolver, given);
+        if (required)
+            resolver = new RequiredValueResolverDecorator(resolver, mock(HierarchicalConfiguration.class));
+        return new ValidatorResolverDecorator(resolver, Proxy.class, "value", validator);
+    }
+
+    private static ValueResolver resolverFor(Object value) {
+        ValueResolver resolver = mock(ValueResolver.class);
+        when(resolver.resolve()).thenReturn(value);
+        when(resolver.configurationKeyToLookup()).thenReturn("aKey");
+        return resolver;
+    }
+}
@@ -93,4 +93,30 @@ public class LookupValueResolverTest {
         assertEquals(null, resolver.resolve());
         assertEquals("second", resolver.resolve());
     }
+
+    @Test
+    public void shouldReuseResolversForRecentLookupKeys() throws Exception {
+        when(config.getString("key.one", null)).thenReturn("first", "second", "first", "second");
+        LookupValueResolver resolver = new LookupValueResolver(config, oneBinding, TestIface.class, method, factory);
+        for (int i = 0; i < 4; i++) {
+            resolver.resolve();
+        }
+        assertEquals(2, resolver.getCacheStats().missCount());
+        assertEquals(2, resolver.getCacheStats().hitCount());
+
+        resolver.invalidate();
+        resolver.resolve();
+        assertEquals(3, resolver.getCacheStats().missCount());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedLookupKey() throws Exception {
+        when(config.getString("key.one", null)).thenReturn("first", "second", "third", "first");
+        LookupValueResolver resolver = new LookupValueResolver(config, oneBinding, TestIface.class, method, factory, 2);
+        for (int i = 0; i < 4; i++) {
+            resolver.resolve();
+        }
+        assertEquals(4, resolver.getCacheStats().missCount());
+        assertEquals(2, resolver.getCacheStats().evictionCount());
+    }
 }
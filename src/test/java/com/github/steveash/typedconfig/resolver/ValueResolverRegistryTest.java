@@ -1,15 +1,24 @@
 package com.github.steveash.typedconfig.resolver;
 
+import com.google.common.reflect.TypeToken;
 import org.junit.Test;
 import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.IsolatingClassLoader;
+import com.github.steveash.typedconfig.resolver.type.container.ListValueResolverFactory;
 
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
+import java.util.List;
 
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Steve Ash
@@ -37,4 +46,56 @@ public class ValueResolverRegistryTest {
 
         assertNotNull(registry.lookup(binding));
     }
+
+    @Test
+    public void shouldOnlyAskFactoriesOnceForSameTypeAndOptions() throws Exception {
+        ValueResolverFactory first = mock(ValueResolverFactory.class);
+        ValueResolverFactory second = mock(ValueResolverFactory.class);
+        given(second.canResolveFor(any(ConfigBinding.class))).willReturn(true);
+        ValueResolverRegistry registry = new ValueResolverRegistry(Arrays.asList(first, second));
+
+        assertSame(second, registry.lookup(ConfigBinding.makeForKeyAndType("a", TypeToken.of(String.class))));
+        assertSame(second, registry.lookup(ConfigBinding.makeForKeyAndType("b", TypeToken.of(String.class))));
+        verify(first, times(1)).canResolveFor(any(ConfigBinding.class));
+        verify(second, times(1)).canResolveFor(any(ConfigBinding.class));
+    }
+
+    @Test
+    public void shouldAlwaysAskNonMemoizableFactoriesThatComeFirst() throws Exception {
+        ConfigBinding bindingA = ConfigBinding.makeForKeyAndType("a", TypeToken.of(String.class));
+        ConfigBinding bindingB = ConfigBinding.makeForKeyAndType("b", TypeToken.of(String.class));
+        ValueResolverFactory keyed = mock(NonMemoizableValueResolverFactory.class);
+        given(keyed.canResolveFor(bindingB)).willReturn(true);
+        ValueResolverFactory fallback = mock(ValueResolverFactory.class);
+        given(fallback.canResolveFor(any(ConfigBinding.class))).willReturn(true);
+        ValueResolverRegistry registry = new ValueResolverRegistry(Arrays.asList(keyed, fallback));
+
+        assertSame(fallback, registry.lookup(bindingA));
+        assertSame(keyed, registry.lookup(bindingB));
+        assertSame(fallback, registry.lookup(bindingA));
+    }
+
+    public interface Holder {
+        List<Holder> getChildren();
+    }
+
+    @Test
+    public void shouldNotPinTheClassLoadersOfLookedUpTypes() throws Exception {
+        ValueResolverRegistry registry = ValueResolverRegistry.makeDefaultRegistry();
+        WeakReference<ClassLoader> loader = lookupInThrowawayLoader(registry);
+        IsolatingClassLoader.collect(loader);
+        assertNull(loader.get());
+    }
+
+    private static WeakReference<ClassLoader> lookupInThrowawayLoader(ValueResolverRegistry registry)
+            throws Exception {
+        ClassLoader loader = new IsolatingClassLoader(ValueResolverRegistryTest.class.getName());
+        Class<?> holder = loader.loadClass(Holder.class.getName());
+        TypeToken<?> children = TypeToken.of(holder.getMethod("getChildren").getGenericReturnType());
+
+        registry.lookup(ConfigBinding.makeForKeyAndType("holder", TypeToken.of(holder)));
+        assertSame(ListValueResolverFactory.class,
+                registry.lookup(ConfigBinding.makeForKeyAndType("children", children)).getClass());
+        return new WeakReference<ClassLoader>(loader);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.IndexedList;
+import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.annotation.Index;
+import com.github.steveash.typedconfig.exception.InvalidProxyException;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Steve Ash
+ */
+public class IndexedListValueResolverFactoryTest {
+
+    private XMLConfiguration xmlConfig;
+    private Proxy proxy;
+
+    public static interface Proxy {
+        @Index({"name", "age"})
+        @Config("child")
+        IndexedList<Child> getChildren();
+    }
+
+    public static interface BadProxy {
+        @Index("nope")
+        @Config("child")
+        IndexedList<Child> getChildren();
+    }
+
+    public static interface Child {
+        String getName();
+
+        int getAge();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        xmlConfig = new XMLConfiguration();
+        xmlConfig.addProperty("child(-1).name", "steve");
+        xmlConfig.addProperty("child.age", 30);
+        xmlConfig.addProperty("child(-1).name", "bob");
+        xmlConfig.addProperty("child(1).age", 40);
+        xmlConfig.addProperty("child(-1).name", "jim");
+        xmlConfig.addProperty("child(2).age", 30);
+        proxy = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+    }
+
+    @Test
+    public void shouldFindChildrenByIndexedProperty() throws Exception {
+        IndexedList<Child> children = proxy.getChildren();
+        assertEquals(3, children.size());
+        assertEquals("bob", children.findBy("name", "bob").getName());
+        assertNull(children.findBy("name", "nobody"));
+        assertEquals(2, children.findAllBy("age", 30).size());
+        assertEquals("steve", children.findBy("age", 30).getName());
+    }
+
+    @Test
+    public void shouldReuseChildrenWhenRebuilt() throws Exception {
+        IndexedList<Child> before = proxy.getChildren();
+        xmlConfig.setProperty("child(1).name", "bobby");
+        xmlConfig.addProperty("child(-1).name", "tom");
+        xmlConfig.addProperty("child(3).age", 50);
+
+        IndexedList<Child> after = proxy.getChildren();
+        assertEquals(4, after.size());
+        assertSame(before.get(0), after.get(0));
+        assertSame(before.get(1), after.findBy("name", "bobby"));
+        assertNull(after.findBy("name", "bob"));
+        assertEquals("tom", after.get(3).getName());
+    }
+
+    @Test
+    public void shouldOnlyRebuildIndexesWhenTheConfigurationChanges() throws Exception {
+        Proxy uncached = ConfigProxyFactory.builder().cacheNothing().build().make(Proxy.class, xmlConfig);
+        IndexedList<Child> first = uncached.getChildren();
+        assertSame(first, uncached.getChildren());
+
+        xmlConfig.setProperty("child(2).name", "jimmy");
+        IndexedList<Child> changed = uncached.getChildren();
+        assertNotSame(first, changed);
+        assertEquals("jimmy", changed.findBy("name", "jimmy").getName());
+        assertSame(changed, uncached.getChildren());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnindexedProperty() throws Exception {
+        proxy.getChildren().findBy("city", "Memphis");
+    }
+
+    @Test(expected = InvalidProxyException.class)
+    public void shouldRejectIndexWithoutGetter() throws Exception {
+        ConfigProxyFactory.getDefault().make(BadProxy.class, xmlConfig);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.annotation.LazyElements;
+import com.github.steveash.typedconfig.exception.InvalidProxyException;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Steve Ash
+ */
+public class LazyElementListTest {
+
+    public static interface Proxy {
+        @LazyElements
+        @Config("child")
+        List<Child> getChildren();
+    }
+
+    public static interface BadProxy {
+        @LazyElements
+        @Config("child")
+        ImmutableList<Child> getChildren();
+    }
+
+    public static interface Child {
+        String getName();
+    }
+
+    @Test
+    public void shouldOnlyBuildElementsThatAreAccessed() throws Exception {
+        final AtomicInteger built = new AtomicInteger();
+        List<HierarchicalConfiguration> configs = ImmutableList.of(mock(HierarchicalConfiguration.class),
+                mock(HierarchicalConfiguration.class), mock(HierarchicalConfiguration.class));
+        LazyElementList list = new LazyElementList(configs, new Function<Object, Object>() {
+            @Override
+            public Object apply(Object input) {
+                return "element" + built.incrementAndGet();
+            }
+        });
+
+        assertEquals(3, list.size());
+        assertEquals(0, list.builtCount());
+        Object second = list.get(1);
+        assertSame(second, list.get(1));
+        assertEquals(1, list.builtCount());
+        assertEquals(1, built.get());
+    }
+
+    @Test
+    public void shouldReturnLazyListFromProxy() throws Exception {
+        Proxy proxy = ConfigProxyFactory.getDefault().make(Proxy.class, new XMLConfiguration("nestedConfig3.xml"));
+
+        List<?> children = proxy.getChildren();
+        assertTrue(children instanceof LazyElementList);
+        assertEquals(2, children.size());
+        assertEquals("bob", ((Child) children.get(1)).getName());
+        assertEquals(1, ((LazyElementList) children).builtCount());
+        assertEquals("steve", ((Child) children.iterator().next()).getName());
+    }
+
+    @Test(expected = InvalidProxyException.class)
+    public void shouldRejectLazyImmutableList() throws Exception {
+        ConfigProxyFactory.getDefault().make(BadProxy.class, new XMLConfiguration("nestedConfig3.xml"));
+    }
+}
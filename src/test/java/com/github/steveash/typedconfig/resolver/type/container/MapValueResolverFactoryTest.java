@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.annotation.MapKey;
+import com.github.steveash.typedconfig.exception.InvalidProxyException;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Steve Ash
+ */
+public class MapValueResolverFactoryTest {
+
+    private XMLConfiguration xmlConfig;
+
+    public static interface Proxy {
+        @MapKey("id")
+        @Config("child")
+        Map<Integer, Child> getById();
+
+        @MapKey("id")
+        @Config("child")
+        Map<String, Child> getByIdString();
+    }
+
+    public static interface BadProxy {
+        @MapKey("name")
+        @Config("child")
+        Map<Integer, Child> getByName();
+    }
+
+    public static interface Child {
+        int getId();
+
+        String getName();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        xmlConfig = new XMLConfiguration();
+        xmlConfig.addProperty("child(-1).id", 7);
+        xmlConfig.addProperty("child.name", "steve");
+        xmlConfig.addProperty("child(-1).id", 9);
+        xmlConfig.addProperty("child(1).name", "bob");
+    }
+
+    @Test
+    public void shouldKeepNativeKeyType() throws Exception {
+        Proxy proxy = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+        assertEquals("steve", proxy.getById().get(7).getName());
+        assertEquals("bob", proxy.getById().get(9).getName());
+    }
+
+    @Test
+    public void shouldStringifyKeyForStringKeyedMap() throws Exception {
+        Proxy proxy = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+        assertEquals("bob", proxy.getByIdString().get("9").getName());
+    }
+
+    @Test(expected = InvalidProxyException.class)
+    public void shouldRejectIncompatibleKeyTypeWhenMade() throws Exception {
+        ConfigProxyFactory.getDefault().make(BadProxy.class, xmlConfig);
+    }
+}
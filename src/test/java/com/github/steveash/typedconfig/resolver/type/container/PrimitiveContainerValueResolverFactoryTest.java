@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.Option;
+import com.github.steveash.typedconfig.annotation.Config;
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Steve Ash
+ */
+public class PrimitiveContainerValueResolverFactoryTest {
+
+    private XMLConfiguration xmlConfig;
+    private Proxy proxy;
+
+    public static interface Proxy {
+        @Config("bucket")
+        int[] getInts();
+
+        @Config("bucket")
+        long[] getLongs();
+
+        @Config("bucket")
+        double[] getDoubles();
+
+        @Config("bucket")
+        byte[] getBytes();
+
+        @Config(value = "bucket", options = Option.SHARE_ARRAY)
+        int[] getSharedInts();
+
+        @Config("bucket")
+        List<Integer> getIntList();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        xmlConfig = new XMLConfiguration();
+        xmlConfig.addProperty("bucket", "1");
+        xmlConfig.addProperty("bucket", "5");
+        xmlConfig.addProperty("bucket", "10");
+        proxy = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+    }
+
+    @Test
+    public void shouldResolvePrimitiveArrays() throws Exception {
+        assertArrayEquals(new int[]{1, 5, 10}, proxy.getInts());
+        assertArrayEquals(new long[]{1, 5, 10}, proxy.getLongs());
+        assertArrayEquals(new double[]{1, 5, 10}, proxy.getDoubles(), 0.0);
+        assertArrayEquals(new byte[]{1, 5, 10}, proxy.getBytes());
+    }
+
+    @Test
+    public void shouldNotLetCallersChangeCachedArray() throws Exception {
+        Proxy cached = ConfigProxyFactory.builder().cacheProxiesAndContainers().build().make(Proxy.class, xmlConfig);
+        cached.getInts()[0] = 42;
+        assertEquals(1, cached.getInts()[0]);
+        assertNotSame(cached.getInts(), cached.getInts());
+    }
+
+    @Test
+    public void shouldShareCachedArrayWhenAsked() throws Exception {
+        Proxy cached = ConfigProxyFactory.builder().cacheProxiesAndContainers().build().make(Proxy.class, xmlConfig);
+        int[] ints = cached.getSharedInts();
+        assertArrayEquals(new int[]{1, 5, 10}, ints);
+        assertSame(ints, cached.getSharedInts());
+
+        xmlConfig.addProperty("bucket", "20");
+        assertArrayEquals(new int[]{1, 5, 10, 20}, cached.getSharedInts());
+    }
+
+    @Test
+    public void shouldReadLiveWhenTheStrategyCachesNothing() throws Exception {
+        Proxy uncached = ConfigProxyFactory.builder().cacheNothing().build().make(Proxy.class, xmlConfig);
+        assertArrayEquals(new int[]{1, 5, 10}, uncached.getSharedInts());
+
+        // changing the node directly doesn't fire a configuration event
+        xmlConfig.getRootNode().getChildren("bucket").get(0).setValue("2");
+        assertArrayEquals(new int[]{2, 5, 10}, uncached.getInts());
+        assertArrayEquals(new int[]{2, 5, 10}, uncached.getSharedInts());
+        assertEquals(ImmutableList.of(2, 5, 10), uncached.getIntList());
+    }
+
+    @Test
+    public void shouldKeepImmutableListsForWrapperLists() throws Exception {
+        assertTrue(proxy.getIntList() instanceof ImmutableList);
+        assertEquals(ImmutableList.of(1, 5, 10), proxy.getIntList());
+    }
+
+    @Test
+    public void shouldCompareHashAndPrintArraysByTheirElements() throws Exception {
+        Proxy other = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+        assertEquals(proxy, other);
+        assertEquals(proxy.hashCode(), other.hashCode());
+        assertTrue(proxy.toString().contains("getInts=[1, 5, 10]"));
+    }
+}
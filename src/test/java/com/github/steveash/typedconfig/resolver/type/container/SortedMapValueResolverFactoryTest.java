@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.annotation.Config;
+import com.github.steveash.typedconfig.annotation.MapKey;
+import com.github.steveash.typedconfig.exception.RequiredConfigurationKeyNotPresentException;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.apache.commons.configuration.tree.ConfigurationNode;
+import com.google.common.collect.ImmutableSortedMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NavigableMap;
+import java.util.SortedMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Steve Ash
+ */
+public class SortedMapValueResolverFactoryTest {
+
+    private XMLConfiguration xmlConfig;
+    private Proxy proxy;
+
+    public static interface Proxy {
+        @MapKey("threshold")
+        @Config("tier")
+        NavigableMap<Integer, Tier> getTiers();
+
+        @MapKey(value = "threshold", required = false)
+        @Config("tier")
+        SortedMap<Integer, Tier> getSortedTiers();
+    }
+
+    public static interface ImmutableProxy {
+        @MapKey("threshold")
+        @Config("tier")
+        ImmutableSortedMap<Integer, Tier> getTiers();
+    }
+
+    public static interface Tier {
+        int getThreshold();
+
+        String getName();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        xmlConfig = new XMLConfiguration();
+        addTier(0, 100, "gold");
+        addTier(1, 0, "bronze");
+        addTier(2, 10, "silver");
+        proxy = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+    }
+
+    private void addTier(int index, int threshold, String name) {
+        xmlConfig.addProperty("tier(-1).threshold", threshold);
+        xmlConfig.addProperty("tier(" + index + ").name", name);
+    }
+
+    @Test
+    public void shouldSupportRangeLookups() throws Exception {
+        NavigableMap<Integer, Tier> tiers = proxy.getTiers();
+        assertEquals(Integer.valueOf(0), tiers.firstKey());
+        assertEquals("silver", tiers.floorEntry(50).getValue().getName());
+        assertEquals("gold", tiers.ceilingEntry(50).getValue().getName());
+        assertEquals(2, tiers.headMap(100).size());
+        assertEquals("bronze", proxy.getSortedTiers().get(proxy.getSortedTiers().firstKey()).getName());
+    }
+
+    @Test(expected = RequiredConfigurationKeyNotPresentException.class)
+    public void shouldThrowForMissingRequiredKey() throws Exception {
+        proxy.getTiers().get(5);
+    }
+
+    // the required key map is a wrapper, so it could never be returned as an ImmutableSortedMap
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBindImmutableSortedMaps() throws Exception {
+        ConfigProxyFactory.getDefault().make(ImmutableProxy.class, xmlConfig);
+    }
+
+    @Test
+    public void shouldCacheUntilConfigChangesWhenTheStrategyCachesContainers() throws Exception {
+        proxy = ConfigProxyFactory.builder().cacheProxiesAndContainers().build().make(Proxy.class, xmlConfig);
+        NavigableMap<Integer, Tier> tiers = proxy.getTiers();
+        assertSame(tiers, proxy.getTiers());
+
+        addTier(3, 50, "platinum");
+        NavigableMap<Integer, Tier> rebuilt = proxy.getTiers();
+        assertNotSame(tiers, rebuilt);
+        assertEquals("platinum", rebuilt.floorEntry(60).getValue().getName());
+    }
+
+    @Test
+    public void shouldReadLiveWhenTheStrategyCachesNothing() throws Exception {
+        proxy = ConfigProxyFactory.builder().cacheNothing().build().make(Proxy.class, xmlConfig);
+        assertEquals("silver", proxy.getTiers().floorEntry(50).getValue().getName());
+
+        // changing the node directly doesn't fire a configuration event
+        ConfigurationNode silverThreshold = xmlConfig.configurationAt("tier(2)").getRootNode()
+                .getChildren("threshold").get(0);
+        silverThreshold.setValue("70");
+        assertEquals("bronze", proxy.getTiers().floorEntry(50).getValue().getName());
+    }
+}
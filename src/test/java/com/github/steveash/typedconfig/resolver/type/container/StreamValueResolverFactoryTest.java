@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012 Jonathan Tyers, Steve Ash
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.steveash.typedconfig.resolver.type.container;
+
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.annotation.Config;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import org.apache.commons.configuration.XMLConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Steve Ash
+ */
+public class StreamValueResolverFactoryTest {
+
+    private XMLConfiguration xmlConfig;
+
+    public static interface Proxy {
+        @Config("child")
+        Stream<Child> getChildren();
+
+        @Config("child")
+        Iterable<Child> getChildrenIterable();
+
+        @Config("child.age")
+        Stream<Integer> getAges();
+    }
+
+    public static interface Child {
+        String getName();
+
+        int getAge();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        xmlConfig = new XMLConfiguration();
+        for (int i = 0; i < 100; i++) {
+            xmlConfig.addProperty("child(-1).name", "child" + i);
+            xmlConfig.addProperty("child(" + i + ").age", String.valueOf(i));
+        }
+    }
+
+    @Test
+    public void shouldStreamNestedAndSimpleValues() throws Exception {
+        Proxy proxy = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+        assertEquals("child42", proxy.getChildren().skip(42).findFirst().get().getName());
+        assertEquals(4950, proxy.getAges().mapToInt(Integer::intValue).sum());
+        assertEquals("child99", Iterables.getLast(proxy.getChildrenIterable()).getName());
+    }
+
+    @Test
+    public void shouldSplitForParallelStreams() throws Exception {
+        Proxy proxy = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+        Spliterator<Child> spliterator = proxy.getChildren().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertNotNull(spliterator.trySplit());
+
+        assertEquals(4950, proxy.getChildren().parallel().mapToInt(Child::getAge).sum());
+    }
+
+    @Test
+    public void shouldResolveIterablesToImmutableLists() throws Exception {
+        Proxy proxy = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+        assertTrue(proxy.getChildrenIterable() instanceof ImmutableList);
+        assertEquals(proxy.getChildrenIterable(), proxy.getChildrenIterable());
+    }
+
+    @Test
+    public void shouldCompareHashAndPrintStreamsByTheirElements() throws Exception {
+        Proxy proxy1 = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+        Proxy proxy2 = ConfigProxyFactory.getDefault().make(Proxy.class, xmlConfig);
+        assertEquals(proxy1, proxy2);
+        assertEquals(proxy1.hashCode(), proxy2.hashCode());
+        assertEquals(proxy1.toString(), proxy2.toString());
+        assertTrue(proxy1.toString().contains("getAges=[0, 1, 2"));
+
+        XMLConfiguration otherConfig = (XMLConfiguration) xmlConfig.clone();
+        otherConfig.setProperty("child(3).age", "300");
+        assertFalse(proxy1.equals(ConfigProxyFactory.getDefault().make(Proxy.class, otherConfig)));
+    }
+
+    @Test
+    public void shouldNeverCacheStreams() throws Exception {
+        Proxy proxy = ConfigProxyFactory.builder().cacheEverythingForever().build().make(Proxy.class, xmlConfig);
+        assertEquals(100, proxy.getChildren().count());
+        assertEquals(100, proxy.getChildren().count());
+        assertEquals(ImmutableList.of(0, 1), proxy.getAges().limit(2).collect(Collectors.toList()));
+    }
+}
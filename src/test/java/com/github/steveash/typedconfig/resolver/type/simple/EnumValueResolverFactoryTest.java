@@ -17,6 +17,8 @@
 package com.github.steveash.typedconfig.resolver.type.simple;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -26,9 +28,15 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.github.steveash.typedconfig.ConfigBinding;
+import com.github.steveash.typedconfig.ConfigProxyFactory;
+import com.github.steveash.typedconfig.IsolatingClassLoader;
+import com.github.steveash.typedconfig.annotation.EnumAlias;
+import com.github.steveash.typedconfig.exception.UnknownEnumLabelException;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 import com.google.common.reflect.TypeToken;
 
+import java.lang.ref.WeakReference;
+
 /**
  * @author Steve Ash
  */
@@ -39,6 +47,19 @@ public class EnumValueResolverFactoryTest {
 
     enum Color { RED, BLUE }
 
+    enum Mode {
+        @EnumAlias(value = {"on", "enabled"}, ignoreCase = true)
+        ON,
+        @EnumAlias("disabled")
+        OFF
+    }
+
+    interface Switches {
+        Mode getMode();
+
+        Color getColor();
+    }
+
     @Before
     public void setUp() throws Exception {
         mock = mock(HierarchicalConfiguration.class);
@@ -69,4 +90,68 @@ public class EnumValueResolverFactoryTest {
         ValueResolver resolver = new EnumValueResolverFactory().makeForThis(binding, mock, null);
         resolver.resolve();
     }
+
+    @Test
+    public void shouldMatchAliasesAndIgnoreCaseWhenAsked() throws Exception {
+        when(mock.getString("a", null)).thenReturn("ENABLED", "on", "On", "disabled");
+        ValueResolver resolver = new EnumValueResolverFactory().makeForThis(
+                ConfigBinding.makeForKeyAndType("a", TypeToken.of(Mode.class)), mock, null);
+
+        assertEquals(Mode.ON, resolver.resolve());
+        assertEquals(Mode.ON, resolver.resolve());
+        assertEquals(Mode.ON, resolver.resolve());
+        assertEquals(Mode.OFF, resolver.resolve());
+    }
+
+    @Test
+    public void shouldOnlyIgnoreCaseForMarkedConstants() throws Exception {
+        when(mock.getString("a", null)).thenReturn("off");
+        ValueResolver resolver = new EnumValueResolverFactory().makeForThis(
+                ConfigBinding.makeForKeyAndType("a", TypeToken.of(Mode.class)), mock, null);
+        try {
+            resolver.resolve();
+            fail();
+        } catch (UnknownEnumLabelException e) {
+            assertEquals("off", e.getLabel());
+            assertEquals(0, e.getStackTrace().length);
+        }
+    }
+
+    @Test
+    public void shouldResolveEnumsThroughProxies() throws Exception {
+        HierarchicalConfiguration config = new HierarchicalConfiguration();
+        config.setProperty("mode", "Enabled");
+        config.setProperty("color", "BLUE");
+        Switches switches = ConfigProxyFactory.getDefault().make(Switches.class, config);
+
+        assertEquals(Mode.ON, switches.getMode());
+        assertEquals(Color.BLUE, switches.getColor());
+
+        config.setProperty("color", "GREEN");
+        try {
+            switches.getColor();
+            fail();
+        } catch (UnknownEnumLabelException e) {
+            assertEquals("GREEN", e.getLabel());
+        }
+    }
+
+    @Test
+    public void shouldShareLookupTablePerEnum() throws Exception {
+        assertSame(EnumLookupTable.forEnum(Color.class), EnumLookupTable.forEnum(Color.class));
+    }
+
+    @Test
+    public void shouldNotPinTheEnumClassLoader() throws Exception {
+        WeakReference<ClassLoader> loader = lookupInThrowawayLoader();
+        IsolatingClassLoader.collect(loader);
+        assertNull(loader.get());
+    }
+
+    private static WeakReference<ClassLoader> lookupInThrowawayLoader() throws Exception {
+        ClassLoader loader = new IsolatingClassLoader(EnumValueResolverFactoryTest.class.getName());
+        Class<?> color = loader.loadClass(Color.class.getName());
+        assertEquals("RED", ((Enum<?>) EnumLookupTable.forEnum(color).lookup("RED")).name());
+        return new WeakReference<ClassLoader>(loader);
+    }
 }
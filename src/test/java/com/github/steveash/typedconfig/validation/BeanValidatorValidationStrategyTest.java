@@ -21,13 +21,17 @@ import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.Range;
 import org.junit.Before;
 import org.junit.Test;
+import com.github.steveash.typedconfig.IsolatingClassLoader;
 import com.github.steveash.typedconfig.exception.InvalidProxyException;
 import com.github.steveash.typedconfig.resolver.ValueResolver;
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.constraints.Pattern;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -62,6 +66,19 @@ public class BeanValidatorValidationStrategyTest {
         assertEquals("yep", validating.resolve());
     }
 
+    @Test
+    public void shouldNotHoldOnToDecoratedMethods() throws Exception {
+        WeakReference<Method> method = decorateAndForget();
+        IsolatingClassLoader.collect(method);
+        assertNull(method.get());
+    }
+
+    private WeakReference<Method> decorateAndForget() throws Exception {
+        Method method = MockProxy.class.getDeclaredMethod("getIt1");
+        strategy.decorateForValidation(resolver, MockProxy.class, method);
+        return new WeakReference<Method>(method);
+    }
+
     @Test(expected = ConstraintViolationException.class)
     public void shouldValidatePropertyForBadStrings() throws Exception {
         when(resolver.resolve()).thenReturn("    "); // thats blank